@@ -0,0 +1,42 @@
+package com.dd;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Cost of one morph frame: bounds, corner radius and both colors.
+ */
+@State(Scope.Thread)
+public class MorphGeometryBenchmark {
+
+    private final MorphGeometry mGeometry = new MorphGeometry();
+    private float mFraction;
+
+    @Setup
+    public void setUp() {
+        mGeometry.fromRight = 400;
+        mGeometry.fromBottom = 100;
+        mGeometry.toLeft = 150;
+        mGeometry.toRight = 250;
+        mGeometry.toBottom = 100;
+        mGeometry.toCornerRadius = 50;
+        mGeometry.fromColor = 0xff0099cc;
+        mGeometry.toColor = 0xffffffff;
+        mGeometry.fromStrokeColor = 0xff0099cc;
+        mGeometry.toStrokeColor = 0xffcccccc;
+    }
+
+    @Benchmark
+    public void compute(Blackhole blackhole) {
+        mFraction += 1f / 24f;
+        if (mFraction > 1f) {
+            mFraction = 0f;
+        }
+        mGeometry.compute(mFraction);
+        blackhole.consume(mGeometry.left);
+        blackhole.consume(mGeometry.color);
+    }
+}
@@ -0,0 +1,21 @@
+package com.dd;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Cost of mapping a full sweep of progress values to button states.
+ */
+@State(Scope.Thread)
+public class ProgressStateMachineBenchmark {
+
+    @Benchmark
+    public void progressSweep(Blackhole blackhole) {
+        for (int progress = ProgressStateMachine.ERROR_PROGRESS; progress <= ProgressStateMachine.SUCCESS_PROGRESS;
+             progress++) {
+            blackhole.consume(ProgressStateMachine.getState(progress, ProgressStateMachine.SUCCESS_PROGRESS));
+        }
+    }
+}
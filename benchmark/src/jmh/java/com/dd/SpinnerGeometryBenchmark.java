@@ -0,0 +1,24 @@
+package com.dd;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Cost of one indeterminate spinner frame, at 60 frames per second of elapsed time.
+ */
+@State(Scope.Thread)
+public class SpinnerGeometryBenchmark {
+
+    private final SpinnerGeometry mGeometry = new SpinnerGeometry();
+    private long mElapsed;
+
+    @Benchmark
+    public void update(Blackhole blackhole) {
+        mElapsed += 16;
+        mGeometry.update(mElapsed);
+        blackhole.consume(mGeometry.startAngle);
+        blackhole.consume(mGeometry.sweepAngle);
+    }
+}
@@ -1,8 +1,5 @@
 package com.dd;
 
-import android.animation.Animator;
-import android.animation.ObjectAnimator;
-import android.animation.ValueAnimator;
 import android.graphics.Canvas;
 import android.graphics.ColorFilter;
 import android.graphics.Paint;
@@ -11,31 +8,30 @@ import android.graphics.Rect;
 import android.graphics.RectF;
 import android.graphics.drawable.Animatable;
 import android.graphics.drawable.Drawable;
-import android.util.Property;
-import android.view.animation.DecelerateInterpolator;
-import android.view.animation.Interpolator;
-import android.view.animation.LinearInterpolator;
 
 class CircularAnimatedDrawable extends Drawable implements Animatable {
 
-    private static final Interpolator ANGLE_INTERPOLATOR = new LinearInterpolator();
-    private static final Interpolator SWEEP_INTERPOLATOR = new DecelerateInterpolator();
-    private static final int ANGLE_ANIMATOR_DURATION = 2000;
-    private static final int SWEEP_ANIMATOR_DURATION = 600;
-    public static final int MIN_SWEEP_ANGLE = 30;
+    public static final int MIN_SWEEP_ANGLE = SpinnerGeometry.MIN_SWEEP_ANGLE;
     private final RectF fBounds = new RectF();
+    private final Rect mSquareBounds = new Rect();
+    private final SpinnerGeometry mGeometry = new SpinnerGeometry();
 
-    private ObjectAnimator mObjectAnimatorSweep;
-    private ObjectAnimator mObjectAnimatorAngle;
-    private boolean mModeAppearing;
     private Paint mPaint;
-    private float mCurrentGlobalAngleOffset;
-    private float mCurrentGlobalAngle;
-    private float mCurrentSweepAngle;
+    private Paint mAtlasPaint;
+    private boolean mAtlasEnabled;
+    private SpinnerAtlas mAtlas;
+    private int mColor;
     private float mBorderWidth;
     private boolean mRunning;
+    private long mStartTime;
+    private long mFrameTime;
+    private float mDurationScale = 1f;
+
+    boolean mTicking;
+    boolean mDrawnSinceTick;
 
     public CircularAnimatedDrawable(int color, float borderWidth) {
+        mColor = color;
         mBorderWidth = borderWidth;
 
         mPaint = new Paint();
@@ -44,30 +40,41 @@ class CircularAnimatedDrawable extends Drawable implements Animatable {
         mPaint.setStrokeWidth(borderWidth);
         mPaint.setColor(color);
 
-        setupAnimations();
+        mAtlasPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+        mAtlasPaint.setColor(color);
     }
 
     @Override
     public void draw(Canvas canvas) {
-        float startAngle = mCurrentGlobalAngle - mCurrentGlobalAngleOffset;
-        float sweepAngle = mCurrentSweepAngle;
-        if (!mModeAppearing) {
-            startAngle = startAngle + sweepAngle;
-            sweepAngle = 360 - sweepAngle - MIN_SWEEP_ANGLE;
+        mGeometry.update(mDurationScale > 0f ? (long) ((mFrameTime - mStartTime) / mDurationScale) : 0L);
+        draw(canvas, mGeometry.startAngle, mGeometry.sweepAngle);
+
+        if (mRunning && mDurationScale > 0f) {
+            SpinnerTicker.getInstance().onSpinnerDrawn(this);
+        }
+    }
+
+    /**
+     * Draws one spinner frame with the given angles, regardless of the spinner's own clock.
+     */
+    void draw(Canvas canvas, float startAngle, float sweepAngle) {
+        if (mAtlas != null) {
+            mAtlas.draw(canvas, mSquareBounds, startAngle, sweepAngle, mAtlasPaint);
         } else {
-            sweepAngle += MIN_SWEEP_ANGLE;
+            canvas.drawArc(fBounds, startAngle, sweepAngle, false, mPaint);
         }
-        canvas.drawArc(fBounds, startAngle, sweepAngle, false, mPaint);
     }
 
     @Override
     public void setAlpha(int alpha) {
         mPaint.setAlpha(alpha);
+        mAtlasPaint.setAlpha(alpha);
     }
 
     @Override
     public void setColorFilter(ColorFilter cf) {
         mPaint.setColorFilter(cf);
+        mAtlasPaint.setColorFilter(cf);
     }
 
     @Override
@@ -75,81 +82,53 @@ class CircularAnimatedDrawable extends Drawable implements Animatable {
         return PixelFormat.TRANSPARENT;
     }
 
-    private void toggleAppearingMode() {
-        mModeAppearing = !mModeAppearing;
-        if (mModeAppearing) {
-            mCurrentGlobalAngleOffset = (mCurrentGlobalAngleOffset + MIN_SWEEP_ANGLE * 2) % 360;
-        }
-    }
-
     @Override
     protected void onBoundsChange(Rect bounds) {
         super.onBoundsChange(bounds);
-        fBounds.left = bounds.left + mBorderWidth / 2f + .5f;
-        fBounds.right = bounds.right - mBorderWidth / 2f - .5f;
-        fBounds.top = bounds.top + mBorderWidth / 2f + .5f;
-        fBounds.bottom = bounds.bottom - mBorderWidth / 2f - .5f;
+        // the spinner is a circle centered in the bounds, whatever their aspect ratio
+        int size = Math.min(bounds.width(), bounds.height());
+        int left = bounds.left + (bounds.width() - size) / 2;
+        int top = bounds.top + (bounds.height() - size) / 2;
+        mSquareBounds.set(left, top, left + size, top + size);
+
+        fBounds.left = mSquareBounds.left + mBorderWidth / 2f + .5f;
+        fBounds.right = mSquareBounds.right - mBorderWidth / 2f - .5f;
+        fBounds.top = mSquareBounds.top + mBorderWidth / 2f + .5f;
+        fBounds.bottom = mSquareBounds.bottom - mBorderWidth / 2f - .5f;
+        updateAtlas();
     }
 
-    private Property<CircularAnimatedDrawable, Float> mAngleProperty  =
-            new Property<CircularAnimatedDrawable, Float>(Float.class, "angle") {
-        @Override
-        public Float get(CircularAnimatedDrawable object) {
-            return object.getCurrentGlobalAngle();
+    /**
+     * Blits pre-rendered arcs from a shared {@link SpinnerAtlas} instead of rasterizing the arc on every
+     * frame. The sweep is quantized to {@link SpinnerAtlas#FRAME_COUNT} steps.
+     */
+    public void setAtlasEnabled(boolean atlasEnabled) {
+        if (mAtlasEnabled != atlasEnabled) {
+            mAtlasEnabled = atlasEnabled;
+            updateAtlas();
+            invalidateSelf();
         }
+    }
 
-        @Override
-        public void set(CircularAnimatedDrawable object, Float value) {
-            object.setCurrentGlobalAngle(value);
-        }
-    };
-
-    private Property<CircularAnimatedDrawable, Float> mSweepProperty
-            = new Property<CircularAnimatedDrawable, Float>(Float.class, "arc") {
-        @Override
-        public Float get(CircularAnimatedDrawable object) {
-            return object.getCurrentSweepAngle();
-        }
-
-        @Override
-        public void set(CircularAnimatedDrawable object, Float value) {
-            object.setCurrentSweepAngle(value);
-        }
-    };
-
-    private void setupAnimations() {
-        mObjectAnimatorAngle = ObjectAnimator.ofFloat(this, mAngleProperty, 360f);
-        mObjectAnimatorAngle.setInterpolator(ANGLE_INTERPOLATOR);
-        mObjectAnimatorAngle.setDuration(ANGLE_ANIMATOR_DURATION);
-        mObjectAnimatorAngle.setRepeatMode(ValueAnimator.RESTART);
-        mObjectAnimatorAngle.setRepeatCount(ValueAnimator.INFINITE);
-
-        mObjectAnimatorSweep = ObjectAnimator.ofFloat(this, mSweepProperty, 360f - MIN_SWEEP_ANGLE * 2);
-        mObjectAnimatorSweep.setInterpolator(SWEEP_INTERPOLATOR);
-        mObjectAnimatorSweep.setDuration(SWEEP_ANIMATOR_DURATION);
-        mObjectAnimatorSweep.setRepeatMode(ValueAnimator.RESTART);
-        mObjectAnimatorSweep.setRepeatCount(ValueAnimator.INFINITE);
-        mObjectAnimatorSweep.addListener(new Animator.AnimatorListener() {
-            @Override
-            public void onAnimationStart(Animator animation) {
-
-            }
-
-            @Override
-            public void onAnimationEnd(Animator animation) {
-
-            }
-
-            @Override
-            public void onAnimationCancel(Animator animation) {
+    private void updateAtlas() {
+        mAtlas = mAtlasEnabled ? SpinnerAtlas.obtain(mSquareBounds.width(), mBorderWidth) : null;
+    }
 
-            }
+    /**
+     * Called by {@link SpinnerTicker} once per frame while this spinner keeps being drawn.
+     *
+     * @param frameTime shared clock time in milliseconds
+     */
+    void onTick(long frameTime) {
+        mFrameTime = frameTime;
+        invalidateSelf();
+    }
 
-            @Override
-            public void onAnimationRepeat(Animator animation) {
-                toggleAppearingMode();
-            }
-        });
+    /**
+     * Stretches the spinner timeline by the animator duration scale; a scale of 0 holds the first frame.
+     */
+    public void setDurationScale(float durationScale) {
+        mDurationScale = durationScale;
     }
 
     @Override
@@ -158,8 +137,8 @@ class CircularAnimatedDrawable extends Drawable implements Animatable {
             return;
         }
         mRunning = true;
-        mObjectAnimatorAngle.start();
-        mObjectAnimatorSweep.start();
+        mStartTime = SpinnerTicker.now();
+        mFrameTime = mStartTime;
         invalidateSelf();
     }
 
@@ -169,8 +148,7 @@ class CircularAnimatedDrawable extends Drawable implements Animatable {
             return;
         }
         mRunning = false;
-        mObjectAnimatorAngle.cancel();
-        mObjectAnimatorSweep.cancel();
+        SpinnerTicker.getInstance().remove(this);
         invalidateSelf();
     }
 
@@ -179,22 +157,12 @@ class CircularAnimatedDrawable extends Drawable implements Animatable {
         return mRunning;
     }
 
-    public void setCurrentGlobalAngle(float currentGlobalAngle) {
-        mCurrentGlobalAngle = currentGlobalAngle;
-        invalidateSelf();
-    }
-
-    public float getCurrentGlobalAngle() {
-        return mCurrentGlobalAngle;
-    }
-
-    public void setCurrentSweepAngle(float currentSweepAngle) {
-        mCurrentSweepAngle = currentSweepAngle;
-        invalidateSelf();
+    public int getColor() {
+        return mColor;
     }
 
-    public float getCurrentSweepAngle() {
-        return mCurrentSweepAngle;
+    public float getBorderWidth() {
+        return mBorderWidth;
     }
 
 }
@@ -3,39 +3,77 @@ package com.dd;
 import com.dd.circular.progress.button.R;
 
 import android.annotation.SuppressLint;
+import android.content.ContentResolver;
 import android.content.Context;
 import android.content.res.ColorStateList;
 import android.content.res.TypedArray;
 import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.drawable.Animatable;
 import android.graphics.drawable.Drawable;
-import android.graphics.drawable.GradientDrawable;
 import android.graphics.drawable.StateListDrawable;
 import android.os.Build;
 import android.os.Parcel;
 import android.os.Parcelable;
+import android.provider.Settings;
+import android.text.Layout;
+import android.text.TextPaint;
+import android.text.TextUtils;
 import android.util.AttributeSet;
 import android.util.StateSet;
+import android.view.Display;
+import android.view.View;
+import android.view.WindowManager;
 import android.widget.Button;
 
-import java.util.HashMap;
-import java.util.Map;
 
 public class CircularProgressButton extends Button {
 
-    public static final int IDLE_STATE_PROGRESS = 0;
-    public static final int ERROR_STATE_PROGRESS = -1;
-    public static final int SUCCESS_STATE_PROGRESS = 100;
+    public static final int IDLE_STATE_PROGRESS = ProgressStateMachine.IDLE_PROGRESS;
+    public static final int ERROR_STATE_PROGRESS = ProgressStateMachine.ERROR_PROGRESS;
+    public static final int SUCCESS_STATE_PROGRESS = ProgressStateMachine.SUCCESS_PROGRESS;
 
-    private StrokeGradientDrawable sharedBackground;
+    private static final StateType[] STATE_TYPES = StateType.values();
+
+    /** {@code Settings.System} name of the animator duration scale before it moved to {@code Settings.Global}. */
+    private static final String ANIMATOR_DURATION_SCALE = "animator_duration_scale";
+
+    private MorphingDrawable sharedBackground;
     private CircularAnimatedDrawable mAnimatedDrawable;
+    private Drawable mVectorSpinner;
     private CircularProgressDrawable mProgressDrawable;
 
     private StateManager mStateManager;
+    private final Runnable mCheckStateRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (!mMorphingInProgress) {
+                mStateManager.checkState(CircularProgressButton.this);
+            }
+        }
+    };
+
     private State mState;
-    private Map<StateType, State> states = new HashMap<>(4);
+    /**
+     * Indexed by {@link StateType#ordinal()}, holds only states that were already materialized.
+     */
+    private final State[] mStates = new State[STATE_TYPES.length];
+
+    private StyleCache.Style mStyle;
+    private final CharSequence[] mStateTexts = new CharSequence[STATE_TYPES.length];
+    private final int[] mStateIconResIds = new int[STATE_TYPES.length];
+    private int mColorProgress;
+    private int mColorIndicatorBackground;
 
     private int mColorIndicator;
     private boolean mIndeterminateProgressMode;
+    private boolean mVectorSpinnerEnabled;
+    private boolean mSpinnerAtlasEnabled;
+    private boolean mContentLayerEnabled;
+    private State mContentState;
+    private boolean mContentTextHidden;
+    private boolean mSmoothProgress;
     private int mPaddingProgress;
 
     private int mStrokeWidth;
@@ -44,9 +82,35 @@ public class CircularProgressButton extends Button {
     private int mMaxProgress;
     private int mProgress;
 
+    private boolean mLongProgress;
+    private long mLongProgressCurrent;
+    private long mLongProgressTotal;
+    private float mSweepPerUnit;
+    private double mPercentPerUnit;
+
+
     private State mDestState;
     private MorphingAnimation morphingAnimation;
+    private final Rect mMorphBounds = new Rect();
+    private TransitionPolicy mTransitionPolicy = TransitionPolicy.COLLAPSE_TO_LATEST;
+
+    private boolean mAutoHardwareLayer = true;
+    private boolean mHardwareLayerPromoted;
+    private boolean mSettingLayerType;
+    private int mLayerTypeBeforePromotion = LAYER_TYPE_NONE;
+    private int mHardwareLayerPromotionCount;
     private boolean mMorphingInProgress;
+    /** The running morph was retargeted and starts from an interrupted frame instead of mState. */
+    private boolean mMorphFromFrame;
+    private int mLayoutWidth;
+    private int mLayoutHeight;
+
+    /** Slot of this button's pending update per {@link ProgressButtonGroup}, indexed by group id. */
+    volatile int[] mGroupSlots;
+
+    private OnTransitionMetricsListener mMetricsListener;
+    private TransitionTracker mMorphTracker;
+    private TransitionTracker mSpinnerTracker;
 
     public CircularProgressButton(Context context) {
         super(context);
@@ -67,9 +131,14 @@ public class CircularProgressButton extends Button {
         initStates(context, attributeSet);
 
         mMaxProgress = SUCCESS_STATE_PROGRESS;
-        mState = states.get(StateType.IDLE);
+        mState = getState(StateType.IDLE);
+        mDestState = mState;
         mStateManager = new StateManager(this);
+        morphingAnimation = new MorphingAnimation(sharedBackground);
 
+        if (mContentLayerEnabled) {
+            setText(null);
+        }
         setIconOrText(mState);
         setBackgroundCompat(mState.background);
     }
@@ -88,53 +157,36 @@ public class CircularProgressButton extends Button {
                 mCornerRadius = attr.getDimension(R.styleable.CircularProgressButton_cpb_cornerRadius, 0);
                 mPaddingProgress = attr.getDimensionPixelSize(R.styleable.CircularProgressButton_cpb_paddingProgress, 0);
                 mStrokeWidth = attr.getDimensionPixelSize(R.styleable.CircularProgressButton_cpb_strokeWidth, mStrokeWidth);
+                mVectorSpinnerEnabled = attr.getBoolean(R.styleable.CircularProgressButton_cpb_vectorSpinner, false);
+                mSpinnerAtlasEnabled = attr.getBoolean(R.styleable.CircularProgressButton_cpb_spinnerAtlas, false);
+                mContentLayerEnabled = attr.getBoolean(R.styleable.CircularProgressButton_cpb_contentLayer, false);
             }
 
-            CharSequence idleText = attr != null ? attr.getString(R.styleable.CircularProgressButton_cpb_textIdle) : null;
-            int idleIconResId = attr != null ? attr.getResourceId(R.styleable.CircularProgressButton_cpb_iconIdle, 0) : 0;
             int idleColorState = attr != null ? attr.getResourceId(R.styleable.CircularProgressButton_cpb_selectorIdle,
                     R.color.cpb_idle_state_selector) : R.color.cpb_idle_state_selector;
-            State idle = new State(StateType.IDLE,
-                    idleIconResId > 0 ? getDrawable(idleIconResId) : null,
-                    idleText,
-                    getResources().getColorStateList(idleColorState));
-            initSharedBackground(idle);
-            setupBackground(idle, true);
-
-            CharSequence completeText = attr != null ? attr.getString(R.styleable.CircularProgressButton_cpb_textComplete) : null;
-            int completeIconResId = attr != null ? attr.getResourceId(R.styleable.CircularProgressButton_cpb_iconComplete, 0) : 0;
             int completeColorState = attr != null ? attr.getResourceId(R.styleable.CircularProgressButton_cpb_selectorComplete,
                     R.color.cpb_complete_state_selector) : R.color.cpb_complete_state_selector;
-            State complete = new State(StateType.COMPLETE,
-                    completeIconResId > 0 ? getDrawable(completeIconResId) : null,
-                    completeText,
-                    getResources().getColorStateList(completeColorState));
-            setupBackground(complete, true);
-
-            CharSequence errorText = attr != null ? attr.getString(R.styleable.CircularProgressButton_cpb_textError) : null;
-            int errorIconResId = attr != null ? attr.getResourceId(R.styleable.CircularProgressButton_cpb_iconError, 0) : 0;
             int errorColorState = attr != null ? attr.getResourceId(R.styleable.CircularProgressButton_cpb_selectorError,
                     R.color.cpb_error_state_selector) : R.color.cpb_error_state_selector;
-            State error = new State(StateType.ERROR,
-                    errorIconResId > 0 ? getDrawable(errorIconResId) : null,
-                    errorText,
-                    getResources().getColorStateList(errorColorState));
-            setupBackground(error, true);
-
-            int colorProgress = attr != null ? attr.getColor(R.styleable.CircularProgressButton_cpb_colorProgress, white) : white;
-            CharSequence progressText = attr != null ? attr.getString(R.styleable.CircularProgressButton_cpb_textProgress) : null;
-            int progressIconResId = attr != null ? attr.getResourceId(R.styleable.CircularProgressButton_cpb_iconProgress, 0) : 0;
-            State progress = new State(StateType.PROGRESS,
-                    progressIconResId > 0 ? getDrawable(progressIconResId) : null,
-                    progressText,
-                    ColorStateList.valueOf(colorProgress));
-            progress.strokeColor = attr != null ? attr.getColor(R.styleable.CircularProgressButton_cpb_colorIndicatorBackground, grey) : grey;
-            progress.background = sharedBackground.getGradientDrawable();
-
-            states.put(StateType.IDLE, idle);
-            states.put(StateType.PROGRESS, progress);
-            states.put(StateType.COMPLETE, complete);
-            states.put(StateType.ERROR, error);
+            mStyle = StyleCache.obtain(context, new StyleCache.Key(context.getResources(), idleColorState, completeColorState,
+                    errorColorState, mCornerRadius, mStrokeWidth));
+
+            if (attr != null) {
+                readStateAttributes(attr, StateType.IDLE,
+                        R.styleable.CircularProgressButton_cpb_textIdle, R.styleable.CircularProgressButton_cpb_iconIdle);
+                readStateAttributes(attr, StateType.PROGRESS,
+                        R.styleable.CircularProgressButton_cpb_textProgress, R.styleable.CircularProgressButton_cpb_iconProgress);
+                readStateAttributes(attr, StateType.COMPLETE,
+                        R.styleable.CircularProgressButton_cpb_textComplete, R.styleable.CircularProgressButton_cpb_iconComplete);
+                readStateAttributes(attr, StateType.ERROR,
+                        R.styleable.CircularProgressButton_cpb_textError, R.styleable.CircularProgressButton_cpb_iconError);
+            }
+            mColorProgress = attr != null ? attr.getColor(R.styleable.CircularProgressButton_cpb_colorProgress, white) : white;
+            mColorIndicatorBackground = attr != null
+                    ? attr.getColor(R.styleable.CircularProgressButton_cpb_colorIndicatorBackground, grey) : grey;
+
+            State idle = createState(StateType.IDLE);
+            mStates[StateType.IDLE.ordinal()] = idle;
         } finally {
             if (attr != null) {
                 attr.recycle();
@@ -142,37 +194,25 @@ public class CircularProgressButton extends Button {
         }
     }
 
-    private void setupBackground(State state, boolean allStates) {
+    private void setupBackground(State state, StyleCache.StateStyle style) {
         StateListDrawable drawable = new StateListDrawable();
-        if (allStates) {
-            int colorDisabled = state.getDisabledColor();
-            drawable.addState(new int[]{-android.R.attr.state_enabled}, createDrawable(colorDisabled).getGradientDrawable());
-        }
-        int colorPressed = state.getPressedColor();
-        drawable.addState(new int[]{android.R.attr.state_pressed}, createDrawable(colorPressed).getGradientDrawable());
-        if (allStates) {
-            int colorFocused = state.getFocusedColor();
-            drawable.addState(new int[]{android.R.attr.state_focused}, createDrawable(colorFocused).getGradientDrawable());
-        }
-        drawable.addState(StateSet.WILD_CARD, sharedBackground.getGradientDrawable());
+        drawable.addState(new int[]{-android.R.attr.state_enabled}, newDrawable(style.disabled));
+        drawable.addState(new int[]{android.R.attr.state_pressed}, newDrawable(style.pressed));
+        drawable.addState(new int[]{android.R.attr.state_focused}, newDrawable(style.focused));
+        drawable.addState(StateSet.WILD_CARD, sharedBackground);
         state.background = drawable;
     }
 
-    private void initSharedBackground(State idleState) {
+    private void initSharedBackground(State idleState, StyleCache.StateStyle idleStyle) {
         if (sharedBackground == null) {
-            int colorNormal = idleState.getNormalColor();
-            sharedBackground = createDrawable(colorNormal);
+            sharedBackground = newDrawable(idleStyle.normal);
+            sharedBackground.setStrokeColor(idleState.getNormalColor());
+            sharedBackground.setStrokeWidth(mStrokeWidth);
         }
     }
 
-    private StrokeGradientDrawable createDrawable(int color) {
-        GradientDrawable drawable = (GradientDrawable) getDrawable(R.drawable.cpb_background).mutate();
-        drawable.setColor(color);
-        drawable.setCornerRadius(mCornerRadius);
-        StrokeGradientDrawable strokeGradientDrawable = new StrokeGradientDrawable(drawable);
-        strokeGradientDrawable.setStrokeColor(color);
-        strokeGradientDrawable.setStrokeWidth(mStrokeWidth);
-        return strokeGradientDrawable;
+    private MorphingDrawable newDrawable(Drawable.ConstantState state) {
+        return StyleCache.newDrawable(getResources(), state);
     }
 
     private Drawable getDrawable(int resId) {
@@ -191,8 +231,53 @@ public class CircularProgressButton extends Button {
         return context.obtainStyledAttributes(attributeSet, attr, 0, 0);
     }
 
+    /**
+     * States other than idle are built on first use, most buttons never reach all of them.
+     */
     private State getState(StateType stateType) {
-        return states.get(stateType);
+        State state = mStates[stateType.ordinal()];
+        if (state == null) {
+            state = createState(stateType);
+            mStates[stateType.ordinal()] = state;
+        }
+        return state;
+    }
+
+    private State createState(StateType type) {
+        int index = type.ordinal();
+        Drawable icon = mStateIconResIds[index] != 0 ? getDrawable(mStateIconResIds[index]) : null;
+        CharSequence text = mStateTexts[index];
+
+        if (type == StateType.PROGRESS) {
+            State progress = new State(type, icon, text, ColorStateList.valueOf(mColorProgress), null);
+            progress.strokeColor = mColorIndicatorBackground;
+            progress.background = sharedBackground;
+            return progress;
+        }
+
+        StyleCache.StateStyle style = getStateStyle(type);
+        State state = new State(type, icon, text, style.colorStateList, style.colors);
+        if (type == StateType.IDLE) {
+            initSharedBackground(state, style);
+        }
+        setupBackground(state, style);
+        return state;
+    }
+
+    private StyleCache.StateStyle getStateStyle(StateType type) {
+        switch (type) {
+            case COMPLETE:
+                return mStyle.complete;
+            case ERROR:
+                return mStyle.error;
+            default:
+                return mStyle.idle;
+        }
+    }
+
+    private void readStateAttributes(TypedArray attr, StateType type, int textIndex, int iconIndex) {
+        mStateTexts[type.ordinal()] = attr.getString(textIndex);
+        mStateIconResIds[type.ordinal()] = attr.getResourceId(iconIndex, 0);
     }
 
     @Override
@@ -212,17 +297,58 @@ public class CircularProgressButton extends Button {
         if (mAnimatedDrawable != null) {
             mAnimatedDrawable.jumpToCurrentState();
         }
+        if (mVectorSpinner != null) {
+            mVectorSpinner.jumpToCurrentState();
+        }
         if (mProgressDrawable != null) {
             mProgressDrawable.jumpToCurrentState();
         }
     }
 
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+        if (mContentLayerEnabled) {
+            // TextView has no text to measure, reserve room for the widest state instead
+            int contentWidth = getCompoundPaddingLeft() + getCompoundPaddingRight() + getMaxContentWidth();
+            int width = resolveSize(Math.max(getMeasuredWidth(), contentWidth), widthMeasureSpec);
+            setMeasuredDimension(width, getMeasuredHeight());
+        }
+    }
+
+    private int getMaxContentWidth() {
+        TextPaint paint = getPaint();
+        int maxWidth = 0;
+        for (StateType type : STATE_TYPES) {
+            State state = mStates[type.ordinal()];
+            int index = type.ordinal();
+            if (state == null && mStateIconResIds[index] != 0) {
+                // the icon has to be loaded to be measured
+                state = getState(type);
+            }
+            Drawable icon = state != null ? state.icon : null;
+            CharSequence text = state != null ? state.text : mStateTexts[index];
+            if (icon != null) {
+                maxWidth = Math.max(maxWidth, icon.getIntrinsicWidth());
+            } else if (!TextUtils.isEmpty(text)) {
+                maxWidth = Math.max(maxWidth, (int) Math.ceil(Layout.getDesiredWidth(text, paint)));
+            }
+        }
+        return maxWidth;
+    }
+
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
 
+        if (mContentLayerEnabled && mContentState != null) {
+            drawContent(canvas);
+        }
+
         if (mProgress > 0 && mState.type == StateType.PROGRESS && !mMorphingInProgress) {
-            if (mIndeterminateProgressMode) {
+            if (mIndeterminateProgressMode && isVectorSpinnerSupported()) {
+                drawVectorSpinner(canvas);
+            } else if (mIndeterminateProgressMode) {
                 drawIndeterminateProgress(canvas);
             } else {
                 drawProgress(canvas);
@@ -230,41 +356,183 @@ public class CircularProgressButton extends Button {
         }
     }
 
+    private void drawContent(Canvas canvas) {
+        State state = mContentState;
+        if (state.icon != null) {
+            Drawable icon = state.icon;
+            int left = (getWidth() - icon.getIntrinsicWidth()) / 2;
+            int top = (getHeight() - icon.getIntrinsicHeight()) / 2;
+            icon.setBounds(left, top, left + icon.getIntrinsicWidth(), top + icon.getIntrinsicHeight());
+            icon.draw(canvas);
+        } else if (!mContentTextHidden && !TextUtils.isEmpty(state.text)) {
+            TextPaint paint = getPaint();
+            paint.setColor(getCurrentTextColor());
+            paint.drawableState = getDrawableState();
+
+            if (state.textLayout == null) {
+                state.textLayout = new TextLayoutCache();
+            }
+            ProgressButtonRenderer.drawText(canvas, state.textLayout, state.text, paint, getCompoundPaddingLeft(),
+                    getCompoundPaddingTop(), getWidth() - getCompoundPaddingRight(),
+                    getHeight() - getCompoundPaddingBottom());
+        }
+    }
+
+    public boolean isContentLayerEnabled() {
+        return mContentLayerEnabled;
+    }
+
+    /**
+     * Draws state text and icons from cached layouts instead of passing them to {@link android.widget.TextView},
+     * so state transitions only invalidate and never request a layout. The button is measured to fit
+     * the widest state text or icon.
+     */
+    public void setContentLayerEnabled(boolean contentLayerEnabled) {
+        if (mContentLayerEnabled == contentLayerEnabled) {
+            return;
+        }
+        State contentState = mContentState != null ? mContentState : mState;
+        if (contentLayerEnabled) {
+            setText(null);
+            removeIcon();
+        }
+        mContentLayerEnabled = contentLayerEnabled;
+        setIconOrText(contentState);
+        requestLayout();
+    }
+
     private void drawIndeterminateProgress(Canvas canvas) {
         if (mAnimatedDrawable == null) {
-            int offset = (getWidth() - getHeight()) / 2;
-            mAnimatedDrawable = new CircularAnimatedDrawable(mColorIndicator, mStrokeWidth);
-            int left = offset + mPaddingProgress;
-            int right = getWidth() - offset - mPaddingProgress;
-            int bottom = getHeight() - mPaddingProgress;
-            int top = mPaddingProgress;
-            mAnimatedDrawable.setBounds(left, top, right, bottom);
+            Rect bounds = new Rect();
+            getStateShape(StateType.PROGRESS, bounds);
+            mAnimatedDrawable = DrawablePool.obtainAnimatedDrawable(bounds.width(), mColorIndicator, mStrokeWidth);
+            mAnimatedDrawable.setBounds(bounds);
+            mAnimatedDrawable.setAtlasEnabled(mSpinnerAtlasEnabled);
             mAnimatedDrawable.setCallback(this);
-            mAnimatedDrawable.start();
+            startAnimatedDrawable();
+            beginSpinnerMetrics();
         } else {
             mAnimatedDrawable.draw(canvas);
         }
     }
 
+    @SuppressLint("NewApi")
+    private void drawVectorSpinner(Canvas canvas) {
+        if (mVectorSpinner == null) {
+            Rect bounds = new Rect();
+            getStateShape(StateType.PROGRESS, bounds);
+            mVectorSpinner = getContext().getDrawable(R.drawable.cpb_indeterminate_spinner).mutate();
+            mVectorSpinner.setTint(mColorIndicator);
+            mVectorSpinner.setBounds(bounds);
+            mVectorSpinner.setCallback(this);
+            if (isVisibleToUser()) {
+                ((Animatable) mVectorSpinner).start();
+                beginSpinnerMetrics();
+            }
+        }
+        mVectorSpinner.draw(canvas);
+    }
+
+    private boolean isVectorSpinnerSupported() {
+        return mVectorSpinnerEnabled && Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP;
+    }
+
+    public boolean isVectorSpinnerEnabled() {
+        return mVectorSpinnerEnabled;
+    }
+
+    /**
+     * Draws the indeterminate spinner with an animated vector drawable on Lollipop and later instead
+     * of advancing it from the main thread. Since Android 7.1 the platform runs such animations on the
+     * render thread, so the spinner keeps turning while the main thread is busy. The arc keeps the
+     * proportions of {@code cpb_indeterminate_spinner} rather than {@code cpb_strokeWidth}.
+     * Ignored before Lollipop.
+     */
+    public void setVectorSpinnerEnabled(boolean vectorSpinnerEnabled) {
+        if (mVectorSpinnerEnabled != vectorSpinnerEnabled) {
+            mVectorSpinnerEnabled = vectorSpinnerEnabled;
+            releaseProgressDrawables();
+            invalidate();
+        }
+    }
+
+    public boolean isSpinnerAtlasEnabled() {
+        return mSpinnerAtlasEnabled;
+    }
+
+    /**
+     * Draws the indeterminate spinner from arcs pre-rendered once per size and stroke width and shared
+     * by all buttons, trading a bounded amount of memory for cheaper frames on slow devices.
+     */
+    public void setSpinnerAtlasEnabled(boolean spinnerAtlasEnabled) {
+        mSpinnerAtlasEnabled = spinnerAtlasEnabled;
+        if (mAnimatedDrawable != null) {
+            mAnimatedDrawable.setAtlasEnabled(spinnerAtlasEnabled);
+        }
+    }
+
     private void drawProgress(Canvas canvas) {
         if (mProgressDrawable == null) {
-            int offset = (getWidth() - getHeight()) / 2;
-            int size = getHeight() - mPaddingProgress * 2;
-            mProgressDrawable = new CircularProgressDrawable(size, mStrokeWidth, mColorIndicator);
-            int left = offset + mPaddingProgress;
-            mProgressDrawable.setBounds(left, mPaddingProgress, left, mPaddingProgress);
-        }
-        float sweepAngle = (360f / mMaxProgress) * mProgress;
-        mProgressDrawable.setSweepAngle(sweepAngle);
+            Rect bounds = new Rect();
+            getStateShape(StateType.PROGRESS, bounds);
+            mProgressDrawable = DrawablePool.obtainProgressDrawable(bounds.width(), mStrokeWidth, mColorIndicator);
+            mProgressDrawable.setBounds(bounds);
+            mProgressDrawable.setSmoothProgress(mSmoothProgress);
+            mProgressDrawable.setSweepAngle(getProgressSweepAngle());
+            mProgressDrawable.jumpToCurrentState();
+            mProgressDrawable.setCallback(this);
+        }
         mProgressDrawable.draw(canvas);
     }
 
+    float getProgressSweepAngle() {
+        if (mLongProgress) {
+            return Math.max(0f, Math.min(360f, mLongProgressCurrent * mSweepPerUnit));
+        }
+        return (360f / mMaxProgress) * mProgress;
+    }
+
+    /**
+     * Invalidates only the ring bounds and only if the visible sweep has changed.
+     */
+    private void updateProgressSweep() {
+        if (mProgressDrawable != null) {
+            mProgressDrawable.setSweepAngle(getProgressSweepAngle());
+        }
+    }
+
     public boolean isIndeterminateProgressMode() {
         return mIndeterminateProgressMode;
     }
 
     public void setIndeterminateProgressMode(boolean indeterminateProgressMode) {
         this.mIndeterminateProgressMode = indeterminateProgressMode;
+        updateHardwareLayer();
+    }
+
+    public boolean isSmoothProgress() {
+        return mSmoothProgress;
+    }
+
+    /**
+     * Animates the determinate progress ring towards the latest progress instead of jumping to it,
+     * so progress reported a few times per second still looks fluid.
+     */
+    public void setSmoothProgress(boolean smoothProgress) {
+        mSmoothProgress = smoothProgress;
+        if (mProgressDrawable != null) {
+            mProgressDrawable.setSmoothProgress(smoothProgress);
+        }
+    }
+
+    @SuppressLint("NewApi")
+    @Override
+    public void invalidateDrawable(Drawable who) {
+        super.invalidateDrawable(who);
+        if (who == getBackground() && Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            // morph frames change the shape, not the bounds, so the shadow has to be refreshed explicitly
+            invalidateOutline();
+        }
     }
 
     @Override
@@ -272,32 +540,63 @@ public class CircularProgressButton extends Button {
         boolean superRes = super.verifyDrawable(who);
         if (!superRes) {
             if (mAnimatedDrawable != null) superRes |= who == mAnimatedDrawable;
+            if (mVectorSpinner != null) superRes |= who == mVectorSpinner;
             if (mProgressDrawable != null) superRes |= who == mProgressDrawable;
-            if (sharedBackground != null) superRes |= who == sharedBackground.getGradientDrawable();
+            if (sharedBackground != null) {
+                superRes |= who == sharedBackground;
+            }
             if (mState != null && mState.background != null) superRes |= who == mState.background;
         }
         return superRes;
     }
 
-    private MorphingAnimation createSquareMorphing(boolean instant) {
-        return createMorphing(mCornerRadius, mCornerRadius, getWidth(), getWidth(), 0, instant);
-    }
-
-    private MorphingAnimation createMorphing(float fromCorner, float toCorner, int fromWidth, int toWidth, int padding, boolean instant) {
-        MorphingAnimation animation = new MorphingAnimation(this, sharedBackground);
-        animation.setFromCornerRadius(fromCorner);
-        animation.setToCornerRadius(toCorner);
-        animation.setPadding(padding);
-        animation.setFromWidth(fromWidth);
-        animation.setToWidth(toWidth);
+    /**
+     * @param fromState state to morph from or null to continue from the current frame
+     */
+    private void setupMorphing(State fromState, State destState, boolean instant) {
+        MorphingAnimation animation = morphingAnimation;
+        if (fromState != null) {
+            animation.setFromShape(mMorphBounds, getStateShape(fromState, mMorphBounds));
+            animation.setFromColor(fromState.getNormalColor());
+            animation.setFromStrokeColor(fromState.strokeColor);
+        } else {
+            animation.setFromCurrent();
+        }
+        animation.setToShape(mMorphBounds, getStateShape(destState, mMorphBounds));
+        animation.setToColor(destState.getNormalColor());
+        animation.setToStrokeColor(destState.strokeColor);
 
         if (instant) {
             animation.setDuration(MorphingAnimation.DURATION_INSTANT);
         } else {
             animation.setDuration(MorphingAnimation.DURATION_NORMAL);
         }
+    }
+
+    /**
+     * Writes background bounds of the state into outBounds.
+     *
+     * @return corner radius of the state background
+     */
+    private float getStateShape(State state, Rect outBounds) {
+        return getStateShape(state.type, outBounds);
+    }
 
-        return animation;
+    private float getStateShape(StateType type, Rect outBounds) {
+        return ProgressButtonRenderer.getShape(type, 0, 0, getWidth(), getHeight(), mPaddingProgress, mCornerRadius,
+                outBounds);
+    }
+
+    /**
+     * Fits the running morph to a new view size without restarting it. A morph started from an
+     * interrupted frame keeps that frame as its start, only its target is fitted.
+     */
+    private void updateMorphShapes() {
+        if (!mMorphFromFrame) {
+            morphingAnimation.setFromShape(mMorphBounds, getStateShape(mState, mMorphBounds));
+        }
+        morphingAnimation.setToShape(mMorphBounds, getStateShape(mDestState, mMorphBounds));
+        morphingAnimation.applyCurrent();
     }
 
     private void morphTo(State destState, boolean instant) {
@@ -305,56 +604,99 @@ public class CircularProgressButton extends Button {
             return;
         }
         this.mDestState = destState;
+        removeCallbacks(mCheckStateRunnable);
 
-        if (destState == mState) {
-            instant = true;
-        }
-
-        if (mMorphingInProgress && morphingAnimation != null) {
+        boolean retarget = mMorphingInProgress;
+        if (retarget) {
+            // the running morph is obsolete, continue from its current frame without finishing it
+            morphingAnimation.setListener(null);
             morphingAnimation.cancel();
+            endMetrics(mMorphTracker, TransitionMetrics.Outcome.COLLAPSED);
+        } else if (destState == mState) {
+            // already settled in the state, snap to it without an animator
+            applyStateBackground(destState);
+            return;
         }
 
-        if (mState.type == StateType.PROGRESS) {
-            setText(null);
-            setIcon(destState.icon);
-            morphingAnimation = createMorphing(getHeight(), mCornerRadius, getHeight(), getWidth(), mPaddingProgress, instant);
-        } else if (destState.type == StateType.PROGRESS) {
-            setWidth(getWidth());
-            setIconOrText(destState);
-            morphingAnimation = createMorphing(mCornerRadius, getHeight(), getWidth(), getHeight(), mPaddingProgress, instant);
+        if (mState.type == StateType.PROGRESS && destState.type != StateType.PROGRESS) {
+            endMetrics(mSpinnerTracker, TransitionMetrics.Outcome.COMPLETED);
+            releaseSpinners();
+            if (mContentLayerEnabled) {
+                showContent(destState, false);
+            } else {
+                setText(null);
+                setIcon(destState.icon);
+            }
         } else {
+            if (destState.type == StateType.PROGRESS && mState.type != StateType.PROGRESS && !mContentLayerEnabled) {
+                // keep wrap_content buttons from shrinking to the progress text
+                setWidth(getWidth());
+            }
             setIconOrText(destState);
-            morphingAnimation = createSquareMorphing(instant);
         }
 
-        setBackgroundCompat(sharedBackground.getGradientDrawable());
-
-        morphingAnimation.setFromColor(mState.getNormalColor());
-        morphingAnimation.setToColor(destState.getNormalColor());
-
-        morphingAnimation.setFromStrokeColor(mState.strokeColor);
-        morphingAnimation.setToStrokeColor(destState.strokeColor);
+        mMorphFromFrame = retarget;
+        setupMorphing(retarget ? null : mState, destState, instant);
+        setBackgroundCompat(sharedBackground);
 
         morphingAnimation.setListener(createOnAnimationEndListener(destState));
 
         mMorphingInProgress = true;
+        updateHardwareLayer();
+        if (mMetricsListener != null) {
+            mMorphTracker.begin(mState.type, destState.type, getRefreshRate());
+        }
         morphingAnimation.start();
     }
 
+    /**
+     * @return true if a morph was started, false if the button is already heading to this state
+     */
+    boolean morphTo(StateType stateType, boolean instant) {
+        State destState = getState(stateType);
+        if (destState == mDestState) {
+            return false;
+        }
+        morphTo(destState, instant);
+        return true;
+    }
+
+    public TransitionPolicy getTransitionPolicy() {
+        return mTransitionPolicy;
+    }
+
+    /**
+     * Defines what happens to progress changes that arrive while the button is morphing.
+     */
+    public void setTransitionPolicy(TransitionPolicy transitionPolicy) {
+        mTransitionPolicy = transitionPolicy;
+    }
+
     private OnAnimationEndListener createOnAnimationEndListener(final State destState) {
         return new OnAnimationEndListener() {
             @Override
             public void onAnimationEnd() {
+                if (destState.type != StateType.PROGRESS) {
+                    releaseSpinners();
+                }
                 mState = destState;
                 setIconOrText(mState);
                 setBackgroundCompat(mState.background);
                 mMorphingInProgress = false;
-                mStateManager.checkState(CircularProgressButton.this);
+                updateHardwareLayer();
+                endMetrics(mMorphTracker, TransitionMetrics.Outcome.COMPLETED);
+                // a morph started from inside onAnimationEnd never ends before API 24
+                post(mCheckStateRunnable);
             }
         };
     }
 
     private void setIconOrText(State state) {
+        if (mContentLayerEnabled) {
+            showContent(state, true);
+            return;
+        }
+        mContentState = state;
         if (state.icon != null) {
             setIcon(state.icon);
             setText(null);
@@ -364,6 +706,12 @@ public class CircularProgressButton extends Button {
         }
     }
 
+    private void showContent(State state, boolean textVisible) {
+        mContentState = state;
+        mContentTextHidden = !textVisible;
+        invalidate();
+    }
+
     private void setIcon(Drawable icon) {
         if (icon != null) {
             int padding = (getWidth() / 2) - (icon.getIntrinsicWidth() / 2);
@@ -397,35 +745,163 @@ public class CircularProgressButton extends Button {
     }
 
     public void setProgress(int progress, boolean instant) {
+        mLongProgress = false;
+        applyProgress(progress, instant);
+    }
+
+    /**
+     * Sets progress as an amount of a total, e.g. transferred bytes of a file, without converting it to
+     * percents first. The state follows the percentage: 0 is idle, anything between 0 and total is
+     * progress, total is complete and a negative amount is an error. The ring follows the exact
+     * fraction but is only redrawn once its end moves by at least one pixel.
+     */
+    public void setProgress(long current, long total) {
+        if (total != mLongProgressTotal) {
+            mLongProgressTotal = total;
+            mSweepPerUnit = total > 0 ? 360f / total : 0;
+            mPercentPerUnit = total > 0 ? (double) mMaxProgress / total : 0;
+        }
+        mLongProgressCurrent = current;
+        mLongProgress = true;
+
+        int progress;
+        if (current < 0) {
+            progress = ERROR_STATE_PROGRESS;
+        } else if (current == 0 || total <= 0) {
+            progress = IDLE_STATE_PROGRESS;
+        } else if (current >= total) {
+            progress = mMaxProgress;
+        } else {
+            // never report idle or complete for a transfer in between
+            progress = Math.max(1, Math.min(mMaxProgress - 1, (int) (current * mPercentPerUnit)));
+        }
+        applyProgress(progress, false);
+    }
+
+    void applyProgress(int progress, boolean instant) {
         mProgress = progress;
+        updateProgressSweep();
 
-        if (mMorphingInProgress || getWidth() == 0) {
+        if (getWidth() == 0) {
+            return;
+        }
+
+        if (mTransitionPolicy == TransitionPolicy.PLAY_ALL
+                && (mMorphingInProgress || mStateManager.hasPendingStates())) {
+            mStateManager.enqueue(toStateType(ProgressStateMachine.getState(mProgress, mMaxProgress)), instant);
             return;
         }
 
         mStateManager.saveProgress(this);
 
-        if (mProgress >= mMaxProgress) {
-            morphTo(getState(StateType.COMPLETE), instant);
-        } else if (mProgress > IDLE_STATE_PROGRESS) {
-            morphTo(getState(StateType.PROGRESS), instant);
-        } else if (mProgress == ERROR_STATE_PROGRESS) {
-            morphTo(getState(StateType.ERROR), instant);
-        } else if (mProgress == IDLE_STATE_PROGRESS) {
-            morphTo(getState(StateType.IDLE), instant);
+        State destState = getStateForProgress(mProgress);
+        if (destState != null) {
+            morphTo(destState, instant);
+        }
+    }
+
+    private State getStateForProgress(int progress) {
+        StateType stateType = toStateType(ProgressStateMachine.getState(progress, mMaxProgress));
+        return stateType != null ? getState(stateType) : null;
+    }
+
+    /**
+     * @return button state of a {@link ProgressStateMachine} state or null for
+     * {@link ProgressStateMachine#STATE_NONE}
+     */
+    static StateType toStateType(int state) {
+        switch (state) {
+            case ProgressStateMachine.STATE_PROGRESS:
+                return StateType.PROGRESS;
+            case ProgressStateMachine.STATE_IDLE:
+                return StateType.IDLE;
+            case ProgressStateMachine.STATE_COMPLETE:
+                return StateType.COMPLETE;
+            case ProgressStateMachine.STATE_ERROR:
+                return StateType.ERROR;
+            default:
+                return null;
         }
     }
 
+    /**
+     * Snaps the button to the state of the given progress without creating or running any animation.
+     * Meant for rebinding recycled views, e.g. from a RecyclerView adapter, together with {@link #unbind()}.
+     * Drops a value posted with {@link #postProgress(int)} that has not been applied yet.
+     */
+    public void bindProgress(int progress) {
+        ProgressButtonGroup.getShared().remove(this);
+        mLongProgress = false;
+        mProgress = progress;
+        mStateManager.saveProgress(this);
+        mStateManager.clearPendingStates();
+        removeCallbacks(mCheckStateRunnable);
+        updateProgressSweep();
+
+        if (mMorphingInProgress) {
+            mMorphingInProgress = false;
+            morphingAnimation.setListener(null);
+            morphingAnimation.cancel();
+            endMetrics(mMorphTracker, TransitionMetrics.Outcome.CANCELLED);
+        }
+
+        State destState = getStateForProgress(progress);
+        if (destState == null) {
+            return;
+        }
+
+        if (destState.type != StateType.PROGRESS) {
+            endMetrics(mSpinnerTracker, TransitionMetrics.Outcome.CANCELLED);
+            releaseSpinners();
+        }
+        mDestState = destState;
+        mState = destState;
+        setIconOrText(destState);
+        applyStateBackground(destState);
+        updateHardwareLayer();
+    }
+
+    /**
+     * Returns progress drawables of this button to a shared pool, so the next bound button of the same
+     * size and style can reuse them. The button lazily picks up drawables again when it is drawn.
+     * Drops a value posted with {@link #postProgress(int)} that has not been applied yet.
+     */
+    public void unbind() {
+        ProgressButtonGroup.getShared().remove(this);
+        releaseProgressDrawables();
+    }
+
+    /**
+     * Applies the final morphing geometry and colors of the state to the shared background.
+     */
+    private void applyStateBackground(State state) {
+        if (getWidth() != 0) {
+            setupMorphing(state, state, true);
+            morphingAnimation.applyEnd();
+        }
+        setBackgroundCompat(state.background);
+    }
+
     public int getProgress() {
         return mProgress;
     }
 
+    /**
+     * Thread-safe variant of {@link #setProgress(int)}. The latest posted value is applied on the main
+     * thread at the start of the next frame; values overwritten before that frame are dropped.
+     */
+    public void postProgress(int progress) {
+        ProgressButtonGroup.getShared().setProgress(this, progress);
+    }
+
     public void setBackgroundColor(int color) {
-        sharedBackground.getGradientDrawable().setColor(color);
+        sharedBackground.setColor(color);
+        invalidate();
     }
 
     public void setStrokeColor(int color) {
         sharedBackground.setStrokeColor(color);
+        invalidate();
     }
 
     public CharSequence getText(StateType type) {
@@ -433,7 +909,8 @@ public class CircularProgressButton extends Button {
     }
 
     public void setText(StateType type, CharSequence text) {
-        getState(type).text = text;
+        State state = getState(type);
+        state.text = text;
         invalidateTextAndIcon();
     }
 
@@ -450,23 +927,304 @@ public class CircularProgressButton extends Button {
         if (!mMorphingInProgress) {
             setIconOrText(mState);
         }
+        if (mContentLayerEnabled) {
+            // the widest state defines the measured width
+            requestLayout();
+        }
     }
 
     @Override
     protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
         super.onLayout(changed, left, top, right, bottom);
-        if (changed) {
-            mProgressDrawable = null;
-            mAnimatedDrawable = null;
+        int width = right - left;
+        int height = bottom - top;
+        // all geometry is view relative, so moving the button doesn't invalidate any of it
+        if (changed && (width != mLayoutWidth || height != mLayoutHeight)) {
+            mLayoutWidth = width;
+            mLayoutHeight = height;
+            releaseProgressDrawables();
 
             if (mMorphingInProgress) {
-                mMorphingInProgress = false;
-                if (morphingAnimation != null) {
-                    morphingAnimation.cancel();
-                }
+                updateMorphShapes();
+                return;
+            }
+
+            mStateManager.clearPendingStates();
+            applyProgress(mProgress, true);
+            if (!mMorphingInProgress) {
+                applyStateBackground(mState);
+                updateHardwareLayer();
+            }
+        }
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        updateAnimatedDrawableRunning();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        if (mAnimatedDrawable != null) {
+            mAnimatedDrawable.stop();
+        }
+        if (mVectorSpinner != null) {
+            ((Animatable) mVectorSpinner).stop();
+        }
+        endMetrics(mSpinnerTracker, TransitionMetrics.Outcome.CANCELLED);
+        super.onDetachedFromWindow();
+        updateHardwareLayer();
+    }
+
+    @Override
+    protected void onVisibilityChanged(View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        updateAnimatedDrawableRunning();
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        updateAnimatedDrawableRunning();
+    }
+
+    private void startAnimatedDrawable() {
+        if (!mAnimatedDrawable.isRunning()) {
+            mAnimatedDrawable.setDurationScale(getAnimatorDurationScale());
+            mAnimatedDrawable.start();
+        }
+    }
+
+    /**
+     * The spinner runs on its own clock, so it applies the animator duration scale from the developer
+     * options itself, like {@link android.animation.ValueAnimator} does.
+     */
+    @SuppressWarnings("deprecation")
+    private float getAnimatorDurationScale() {
+        ContentResolver resolver = getContext().getContentResolver();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            return Settings.Global.getFloat(resolver, Settings.Global.ANIMATOR_DURATION_SCALE, 1f);
+        }
+        return Settings.System.getFloat(resolver, ANIMATOR_DURATION_SCALE, 1f);
+    }
+
+    /**
+     * Pauses the spinner while the button can't be seen and resumes it once it is shown again.
+     */
+    private void updateAnimatedDrawableRunning() {
+        updateHardwareLayer();
+        boolean visible = isVisibleToUser() && mState != null && mState.type == StateType.PROGRESS;
+        if (mAnimatedDrawable != null) {
+            if (visible) {
+                startAnimatedDrawable();
+            } else {
+                mAnimatedDrawable.stop();
+            }
+        }
+        if (mVectorSpinner != null) {
+            Animatable spinner = (Animatable) mVectorSpinner;
+            if (visible && !spinner.isRunning()) {
+                spinner.start();
+            } else if (!visible) {
+                spinner.stop();
+            }
+        }
+        if (mAnimatedDrawable != null || mVectorSpinner != null) {
+            if (visible) {
+                beginSpinnerMetrics();
+            } else {
+                endMetrics(mSpinnerTracker, TransitionMetrics.Outcome.CANCELLED);
+            }
+        }
+    }
+
+    private boolean isVisibleToUser() {
+        return getWindowVisibility() == VISIBLE && isShown();
+    }
+
+    public boolean isAutoHardwareLayerEnabled() {
+        return mAutoHardwareLayer;
+    }
+
+    /**
+     * Allows the button to switch itself to a hardware layer while it morphs or spins, when that is
+     * expected to be cheaper than drawing without one. Enabled by default.
+     */
+    public void setAutoHardwareLayerEnabled(boolean autoHardwareLayer) {
+        mAutoHardwareLayer = autoHardwareLayer;
+        updateHardwareLayer();
+    }
+
+    /**
+     * @return how many times the button has promoted itself to a hardware layer
+     */
+    public int getHardwareLayerPromotionCount() {
+        return mHardwareLayerPromotionCount;
+    }
+
+    private void updateHardwareLayer() {
+        if (mState == null) {
+            return;
+        }
+
+        boolean animating = mMorphingInProgress
+                || (mState.type == StateType.PROGRESS && mIndeterminateProgressMode && isVisibleToUser());
+        boolean promote = mAutoHardwareLayer && animating && isHardwareLayerCheaper();
+        if (promote == mHardwareLayerPromoted) {
+            return;
+        }
+
+        if (promote) {
+            if (getLayerType() != LAYER_TYPE_NONE) {
+                // layer type was chosen by the app
+                return;
             }
+            mLayerTypeBeforePromotion = getLayerType();
+            setLayerTypeInternal(LAYER_TYPE_HARDWARE);
+            mHardwareLayerPromotionCount++;
+        } else {
+            setLayerTypeInternal(mLayerTypeBeforePromotion);
+        }
+        mHardwareLayerPromoted = promote;
+    }
+
+    private void setLayerTypeInternal(int layerType) {
+        mSettingLayerType = true;
+        try {
+            setLayerType(layerType, null);
+        } finally {
+            mSettingLayerType = false;
+        }
+    }
 
-            setProgress(mProgress, true);
+    @Override
+    public void setLayerType(int layerType, Paint paint) {
+        if (!mSettingLayerType) {
+            // the app takes over, don't undo its choice when the animation ends
+            mHardwareLayerPromoted = false;
+        }
+        super.setLayerType(layerType, paint);
+    }
+
+    @Override
+    public void setAlpha(float alpha) {
+        super.setAlpha(alpha);
+        updateHardwareLayer();
+    }
+
+    /**
+     * Morph and spinner frames change the content, so a layer is redrawn on every frame anyway. It only
+     * pays off when the translucent view would otherwise be composited through a fresh offscreen buffer.
+     */
+    @SuppressLint("NewApi")
+    private boolean isHardwareLayerCheaper() {
+        if (!isHardwareAccelerated() || getAlpha() >= 1f) {
+            return false;
+        }
+        return Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN || hasOverlappingRendering();
+    }
+
+    public OnTransitionMetricsListener getOnTransitionMetricsListener() {
+        return mMetricsListener;
+    }
+
+    /**
+     * Reports duration and frame statistics of every morph and indeterminate spinner session.
+     * Frames are only counted while a listener is set.
+     */
+    public void setOnTransitionMetricsListener(OnTransitionMetricsListener listener) {
+        if (listener == null) {
+            if (mMorphTracker != null) {
+                mMorphTracker.end(TransitionMetrics.Outcome.CANCELLED);
+                mSpinnerTracker.end(TransitionMetrics.Outcome.CANCELLED);
+            }
+        } else if (mMorphTracker == null) {
+            mMorphTracker = new TransitionTracker(TransitionMetrics.Kind.MORPH);
+            mSpinnerTracker = new TransitionTracker(TransitionMetrics.Kind.SPINNER);
+        }
+        mMetricsListener = listener;
+    }
+
+    private void beginSpinnerMetrics() {
+        if (mMetricsListener != null && !mSpinnerTracker.isActive() && mState.type == StateType.PROGRESS
+                && !mMorphingInProgress) {
+            mSpinnerTracker.begin(StateType.PROGRESS, StateType.PROGRESS, getRefreshRate());
+        }
+    }
+
+    @SuppressLint("NewApi")
+    private float getRefreshRate() {
+        Display display = Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1 ? getDisplay() : null;
+        if (display == null) {
+            WindowManager windowManager = (WindowManager) getContext().getSystemService(Context.WINDOW_SERVICE);
+            display = windowManager.getDefaultDisplay();
+        }
+        return display.getRefreshRate();
+    }
+
+    private void endMetrics(TransitionTracker tracker, TransitionMetrics.Outcome outcome) {
+        if (tracker == null) {
+            return;
+        }
+        TransitionMetrics metrics = tracker.end(outcome);
+        if (metrics != null && mMetricsListener != null) {
+            mMetricsListener.onTransitionMetrics(this, metrics);
+        }
+    }
+
+    StateType getStateType() {
+        return mState.type;
+    }
+
+    StyleCache.Style getStyle() {
+        return mStyle;
+    }
+
+    boolean isStateMaterialized(StateType stateType) {
+        return mStates[stateType.ordinal()] != null;
+    }
+
+    boolean hasMorphAnimator() {
+        return morphingAnimation.hasAnimator();
+    }
+
+    MorphGeometry getMorphGeometry() {
+        return morphingAnimation.getGeometry();
+    }
+
+    boolean isMorphing() {
+        return mMorphingInProgress;
+    }
+
+    /**
+     * The indeterminate spinner currently bound to the button, if any.
+     */
+    Animatable getSpinner() {
+        return mVectorSpinner != null ? (Animatable) mVectorSpinner : mAnimatedDrawable;
+    }
+
+    private void releaseProgressDrawables() {
+        endMetrics(mSpinnerTracker, TransitionMetrics.Outcome.CANCELLED);
+        releaseSpinners();
+        if (mProgressDrawable != null) {
+            DrawablePool.release(mProgressDrawable);
+            mProgressDrawable = null;
+        }
+    }
+
+    /**
+     * Stops the indeterminate spinners and returns them, they are only drawn in the progress state.
+     */
+    private void releaseSpinners() {
+        if (mAnimatedDrawable != null) {
+            DrawablePool.release(mAnimatedDrawable);
+            mAnimatedDrawable = null;
+        }
+        if (mVectorSpinner != null) {
+            ((Animatable) mVectorSpinner).stop();
+            mVectorSpinner.setCallback(null);
+            mVectorSpinner = null;
         }
     }
 
@@ -476,6 +1234,10 @@ public class CircularProgressButton extends Button {
         SavedState savedState = new SavedState(superState);
         savedState.mProgress = mProgress;
         savedState.mIndeterminateProgressMode = mIndeterminateProgressMode;
+        savedState.mSmoothProgress = mSmoothProgress;
+        savedState.mLongProgress = mLongProgress;
+        savedState.mLongProgressCurrent = mLongProgressCurrent;
+        savedState.mLongProgressTotal = mLongProgressTotal;
         return savedState;
     }
 
@@ -485,8 +1247,13 @@ public class CircularProgressButton extends Button {
             SavedState savedState = (SavedState) state;
             mProgress = savedState.mProgress;
             mIndeterminateProgressMode = savedState.mIndeterminateProgressMode;
+            setSmoothProgress(savedState.mSmoothProgress);
             super.onRestoreInstanceState(savedState.getSuperState());
-            setProgress(mProgress, true);
+            if (savedState.mLongProgress) {
+                setProgress(savedState.mLongProgressCurrent, savedState.mLongProgressTotal);
+            } else {
+                setProgress(mProgress, true);
+            }
         } else {
             super.onRestoreInstanceState(state);
         }
@@ -496,7 +1263,11 @@ public class CircularProgressButton extends Button {
     static class SavedState extends BaseSavedState {
 
         private boolean mIndeterminateProgressMode;
+        private boolean mSmoothProgress;
         private int mProgress;
+        private boolean mLongProgress;
+        private long mLongProgressCurrent;
+        private long mLongProgressTotal;
 
         public SavedState(Parcelable parcel) {
             super(parcel);
@@ -506,6 +1277,10 @@ public class CircularProgressButton extends Button {
             super(in);
             mProgress = in.readInt();
             mIndeterminateProgressMode = in.readInt() == 1;
+            mSmoothProgress = in.readInt() == 1;
+            mLongProgress = in.readInt() == 1;
+            mLongProgressCurrent = in.readLong();
+            mLongProgressTotal = in.readLong();
         }
 
         @Override
@@ -513,6 +1288,10 @@ public class CircularProgressButton extends Button {
             super.writeToParcel(out, flags);
             out.writeInt(mProgress);
             out.writeInt(mIndeterminateProgressMode ? 1 : 0);
+            out.writeInt(mSmoothProgress ? 1 : 0);
+            out.writeInt(mLongProgress ? 1 : 0);
+            out.writeLong(mLongProgressCurrent);
+            out.writeLong(mLongProgressTotal);
         }
 
         public static final Creator<SavedState> CREATOR = new Creator<SavedState>() {
@@ -533,42 +1312,49 @@ public class CircularProgressButton extends Button {
         PROGRESS, IDLE, COMPLETE, ERROR
     }
 
+    public enum TransitionPolicy {
+        /**
+         * A progress change during a morph retargets it from its current frame, obsolete
+         * intermediate states are never played.
+         */
+        COLLAPSE_TO_LATEST,
+        /**
+         * Every state change is played in order, each morph waits for the previous one to end.
+         */
+        PLAY_ALL
+    }
+
     private static class State {
         StateType type;
         Drawable icon;
         CharSequence text;
         ColorStateList colorStateList;
+        int[] colors;
 
         Drawable background;
         int strokeColor;
 
-        public State(StateType type, Drawable icon, CharSequence text, ColorStateList colorStateList) {
+        TextLayoutCache textLayout;
+
+        public State(StateType type, Drawable icon, CharSequence text, ColorStateList colorStateList, int[] colors) {
             this.type = type;
             this.icon = icon;
             this.text = text;
-            this.colorStateList = colorStateList;
+            setColorStateList(colorStateList, colors);
 
             strokeColor = getNormalColor();
         }
 
-        private int getColor(int[] state) {
-            return colorStateList.getColorForState(state, getNormalColor());
-        }
-
-        private int getNormalColor() {
-            return colorStateList.getColorForState(new int[]{android.R.attr.state_enabled}, 0);
-        }
-
-        private int getPressedColor() {
-            return colorStateList.getColorForState(new int[]{android.R.attr.state_pressed}, 0);
-        }
-
-        private int getFocusedColor() {
-            return colorStateList.getColorForState(new int[]{android.R.attr.state_focused}, 0);
+        /**
+         * @param colors already resolved color table of the selector or null to resolve it now
+         */
+        void setColorStateList(ColorStateList colorStateList, int[] colors) {
+            this.colorStateList = colorStateList;
+            this.colors = colors != null ? colors : StyleCache.resolveColors(colorStateList);
         }
 
-        private int getDisabledColor() {
-            return colorStateList.getColorForState(new int[]{-android.R.attr.state_enabled}, 0);
+        int getNormalColor() {
+            return colors[StyleCache.COLOR_NORMAL];
         }
     }
-}
+}
\ No newline at end of file
@@ -3,15 +3,22 @@ package com.dd;
 import android.graphics.Canvas;
 import android.graphics.ColorFilter;
 import android.graphics.Paint;
-import android.graphics.Path;
 import android.graphics.Rect;
 import android.graphics.RectF;
 import android.graphics.drawable.Drawable;
+import android.view.animation.AnimationUtils;
 
 class CircularProgressDrawable extends Drawable {
 
+    static final int SMOOTH_PROGRESS_DURATION = 500;
+
     private float mSweepAngle;
+    private boolean mSmoothProgress;
+    private float mFromSweepAngle;
+    private float mTargetSweepAngle;
+    private long mSweepStartTime;
     private float mStartAngle;
+    private float mMinSweepStep;
     private int mSize;
     private int mStrokeWidth;
     private int mStrokeColor;
@@ -24,25 +31,119 @@ class CircularProgressDrawable extends Drawable {
         mSweepAngle = 0;
     }
 
+    /**
+     * Ignores changes that would move the end of the arc by less than a pixel, except for reaching an
+     * empty or full ring.
+     */
     public void setSweepAngle(float sweepAngle) {
-        mSweepAngle = sweepAngle;
+        if (mTargetSweepAngle == sweepAngle) {
+            return;
+        }
+        if (Math.abs(sweepAngle - mTargetSweepAngle) < mMinSweepStep && sweepAngle != 0 && sweepAngle != 360) {
+            return;
+        }
+        mTargetSweepAngle = sweepAngle;
+
+        if (mSmoothProgress) {
+            mFromSweepAngle = mSweepAngle;
+            mSweepStartTime = AnimationUtils.currentAnimationTimeMillis();
+        } else {
+            mSweepAngle = sweepAngle;
+        }
+        invalidateSelf();
+    }
+
+    /**
+     * Sets the drawn sweep right away, without the pixel threshold and smoothing of
+     * {@link #setSweepAngle(float)}. Meant for drawables shared by several progress rings, where the
+     * previous sweep belongs to another ring.
+     */
+    void jumpToSweepAngle(float sweepAngle) {
+        mTargetSweepAngle = sweepAngle;
+        if (mSweepAngle != sweepAngle) {
+            mSweepAngle = sweepAngle;
+            invalidateSelf();
+        }
+    }
+
+    float getSweepAngle() {
+        return mSweepAngle;
+    }
+
+    /**
+     * In smooth mode the drawn sweep follows the latest target over {@link #SMOOTH_PROGRESS_DURATION}
+     * using the frame time of each draw, so coarse progress updates still look fluid.
+     */
+    public void setSmoothProgress(boolean smoothProgress) {
+        mSmoothProgress = smoothProgress;
+        if (!smoothProgress) {
+            jumpToCurrentState();
+        }
+    }
+
+    @Override
+    public void jumpToCurrentState() {
+        if (mSweepAngle != mTargetSweepAngle) {
+            mSweepAngle = mTargetSweepAngle;
+            invalidateSelf();
+        }
+    }
+
+    private boolean updateSmoothSweepAngle() {
+        if (mSweepAngle == mTargetSweepAngle) {
+            return false;
+        }
+
+        long elapsed = AnimationUtils.currentAnimationTimeMillis() - mSweepStartTime;
+        if (elapsed >= SMOOTH_PROGRESS_DURATION) {
+            mSweepAngle = mTargetSweepAngle;
+            return false;
+        }
+
+        float fraction = (float) elapsed / SMOOTH_PROGRESS_DURATION;
+        mSweepAngle = mFromSweepAngle + (mTargetSweepAngle - mFromSweepAngle) * fraction;
+        return true;
     }
 
     public int getSize() {
         return mSize;
     }
 
+    public int getStrokeWidth() {
+        return mStrokeWidth;
+    }
+
+    public int getStrokeColor() {
+        return mStrokeColor;
+    }
+
     @Override
-    public void draw(Canvas canvas) {
-        final Rect bounds = getBounds();
+    public int getIntrinsicWidth() {
+        return mSize;
+    }
 
-        if (mPath == null) {
-            mPath = new Path();
+    @Override
+    public int getIntrinsicHeight() {
+        return mSize;
+    }
+
+    @Override
+    protected void onBoundsChange(Rect bounds) {
+        super.onBoundsChange(bounds);
+        float index = mStrokeWidth / 2;
+        mRectF.set(bounds.left + index, bounds.top + index, bounds.right - index, bounds.bottom - index);
+        // angle that moves the arc end by one pixel along the circle
+        float radius = mRectF.width() / 2;
+        mMinSweepStep = radius > 0 ? (float) (180 / (Math.PI * radius)) : 0;
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+        boolean animating = mSmoothProgress && updateSmoothSweepAngle();
+        canvas.drawArc(mRectF, mStartAngle, mSweepAngle, false, createPaint());
+        if (animating) {
+            invalidateSelf();
         }
-        mPath.reset();
-        mPath.addArc(getRect(), mStartAngle, mSweepAngle);
-        mPath.offset(bounds.left, bounds.top);
-        canvas.drawPath(mPath, createPaint());
     }
 
     @Override
@@ -59,17 +160,8 @@ class CircularProgressDrawable extends Drawable {
         return 1;
     }
 
-    private RectF mRectF;
+    private final RectF mRectF = new RectF();
     private Paint mPaint;
-    private Path mPath;
-
-    private RectF getRect() {
-        if (mRectF == null) {
-            int index = mStrokeWidth / 2;
-            mRectF = new RectF(index, index, getSize() - index, getSize() - index);
-        }
-        return mRectF;
-    }
 
     private Paint createPaint() {
         if (mPaint == null) {
@@ -0,0 +1,68 @@
+package com.dd;
+
+/**
+ * Small main thread pool of progress drawables shared by all buttons. Recycled list rows hand their
+ * drawables back on unbind and pick up a matching one on the next draw, so binding rows of the
+ * same size and style doesn't allocate.
+ */
+class DrawablePool {
+
+    private static final int MAX_POOL_SIZE = 8;
+
+    private static final CircularProgressDrawable[] sProgressDrawables = new CircularProgressDrawable[MAX_POOL_SIZE];
+    private static final CircularAnimatedDrawable[] sAnimatedDrawables = new CircularAnimatedDrawable[MAX_POOL_SIZE];
+
+    private DrawablePool() {
+    }
+
+    public static CircularProgressDrawable obtainProgressDrawable(int size, int strokeWidth, int strokeColor) {
+        for (int i = 0; i < MAX_POOL_SIZE; i++) {
+            CircularProgressDrawable drawable = sProgressDrawables[i];
+            if (drawable != null
+                    && drawable.getSize() == size
+                    && drawable.getStrokeWidth() == strokeWidth
+                    && drawable.getStrokeColor() == strokeColor) {
+                sProgressDrawables[i] = null;
+                return drawable;
+            }
+        }
+        return new CircularProgressDrawable(size, strokeWidth, strokeColor);
+    }
+
+    public static void release(CircularProgressDrawable drawable) {
+        drawable.setCallback(null);
+        drawable.setSweepAngle(0);
+        drawable.jumpToCurrentState();
+        for (int i = 0; i < MAX_POOL_SIZE; i++) {
+            if (sProgressDrawables[i] == null) {
+                sProgressDrawables[i] = drawable;
+                return;
+            }
+        }
+    }
+
+    public static CircularAnimatedDrawable obtainAnimatedDrawable(int size, int color, float borderWidth) {
+        for (int i = 0; i < MAX_POOL_SIZE; i++) {
+            CircularAnimatedDrawable drawable = sAnimatedDrawables[i];
+            if (drawable != null
+                    && drawable.getBounds().width() == size
+                    && drawable.getColor() == color
+                    && drawable.getBorderWidth() == borderWidth) {
+                sAnimatedDrawables[i] = null;
+                return drawable;
+            }
+        }
+        return new CircularAnimatedDrawable(color, borderWidth);
+    }
+
+    public static void release(CircularAnimatedDrawable drawable) {
+        drawable.stop();
+        drawable.setCallback(null);
+        for (int i = 0; i < MAX_POOL_SIZE; i++) {
+            if (sAnimatedDrawables[i] == null) {
+                sAnimatedDrawables[i] = drawable;
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.dd;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+/**
+ * Runs a callback on the main thread at the start of the next display frame. Uses {@link Choreographer}
+ * on Jelly Bean and later and falls back to a main thread {@link Handler} on older platforms.
+ * <p>
+ * {@link #scheduleFrame()} may be called from any thread, {@link #cancelFrame()} only from the main thread.
+ */
+class FrameScheduler {
+
+    private static final long FALLBACK_FRAME_DELAY = 16;
+
+    interface Callback {
+
+        void doFrame(long frameTimeNanos);
+    }
+
+    private final Impl mImpl;
+
+    public FrameScheduler(Callback callback) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            mImpl = new ChoreographerImpl(callback);
+        } else {
+            mImpl = new HandlerImpl(callback);
+        }
+    }
+
+    public void scheduleFrame() {
+        mImpl.scheduleFrame();
+    }
+
+    public void cancelFrame() {
+        mImpl.cancelFrame();
+    }
+
+    private interface Impl {
+
+        void scheduleFrame();
+
+        void cancelFrame();
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private static class ChoreographerImpl implements Impl, Choreographer.FrameCallback {
+
+        private final Handler mHandler = new Handler(Looper.getMainLooper());
+        private final Callback mCallback;
+
+        private final Runnable mScheduleRunnable = new Runnable() {
+            @Override
+            public void run() {
+                Choreographer.getInstance().postFrameCallback(ChoreographerImpl.this);
+            }
+        };
+
+        ChoreographerImpl(Callback callback) {
+            mCallback = callback;
+        }
+
+        @Override
+        public void scheduleFrame() {
+            if (Looper.myLooper() == Looper.getMainLooper()) {
+                mScheduleRunnable.run();
+            } else {
+                mHandler.post(mScheduleRunnable);
+            }
+        }
+
+        @Override
+        public void cancelFrame() {
+            mHandler.removeCallbacks(mScheduleRunnable);
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            mCallback.doFrame(frameTimeNanos);
+        }
+    }
+
+    private static class HandlerImpl implements Impl, Runnable {
+
+        private final Handler mHandler = new Handler(Looper.getMainLooper());
+        private final Callback mCallback;
+
+        HandlerImpl(Callback callback) {
+            mCallback = callback;
+        }
+
+        @Override
+        public void scheduleFrame() {
+            mHandler.postDelayed(this, FALLBACK_FRAME_DELAY);
+        }
+
+        @Override
+        public void cancelFrame() {
+            mHandler.removeCallbacks(this);
+        }
+
+        @Override
+        public void run() {
+            mCallback.doFrame(System.nanoTime());
+        }
+    }
+}
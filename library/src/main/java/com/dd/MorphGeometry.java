@@ -0,0 +1,87 @@
+package com.dd;
+
+/**
+ * Morph math without Android dependencies: background bounds, corner radius and colors of a morph
+ * at a given animation fraction. Results are written into public fields to keep frames allocation-free.
+ */
+class MorphGeometry {
+
+    int fromLeft;
+    int fromTop;
+    int fromRight;
+    int fromBottom;
+
+    int toLeft;
+    int toTop;
+    int toRight;
+    int toBottom;
+
+    float fromCornerRadius;
+    float toCornerRadius;
+
+    int fromColor;
+    int toColor;
+
+    int fromStrokeColor;
+    int toStrokeColor;
+
+    int left;
+    int top;
+    int right;
+    int bottom;
+    float cornerRadius;
+    int color;
+    int strokeColor;
+
+    /**
+     * Makes the last computed frame the start of the next morph, so a morph can be retargeted midway.
+     */
+    void setFromCurrent() {
+        fromLeft = left;
+        fromTop = top;
+        fromRight = right;
+        fromBottom = bottom;
+        fromCornerRadius = cornerRadius;
+        fromColor = color;
+        fromStrokeColor = strokeColor;
+    }
+
+    /**
+     * @param fraction linear progress of the morph, eased like
+     *                 {@link android.view.animation.AccelerateDecelerateInterpolator}
+     */
+    void compute(float fraction) {
+        fraction = ease(fraction);
+        left = (int) (fromLeft + fraction * (toLeft - fromLeft));
+        top = (int) (fromTop + fraction * (toTop - fromTop));
+        right = (int) (fromRight + fraction * (toRight - fromRight));
+        bottom = (int) (fromBottom + fraction * (toBottom - fromBottom));
+        cornerRadius = fromCornerRadius + fraction * (toCornerRadius - fromCornerRadius);
+        color = evaluateColor(fraction, fromColor, toColor);
+        strokeColor = evaluateColor(fraction, fromStrokeColor, toStrokeColor);
+    }
+
+    static float ease(float fraction) {
+        return (float) (Math.cos((fraction + 1) * Math.PI) / 2.0) + 0.5f;
+    }
+
+    /**
+     * Same interpolation as {@link android.animation.ArgbEvaluator} but without boxing.
+     */
+    static int evaluateColor(float fraction, int startValue, int endValue) {
+        int startA = (startValue >> 24) & 0xff;
+        int startR = (startValue >> 16) & 0xff;
+        int startG = (startValue >> 8) & 0xff;
+        int startB = startValue & 0xff;
+
+        int endA = (endValue >> 24) & 0xff;
+        int endR = (endValue >> 16) & 0xff;
+        int endG = (endValue >> 8) & 0xff;
+        int endB = endValue & 0xff;
+
+        return ((startA + (int) (fraction * (endA - startA))) << 24)
+                | ((startR + (int) (fraction * (endR - startR))) << 16)
+                | ((startG + (int) (fraction * (endG - startG))) << 8)
+                | (startB + (int) (fraction * (endB - startB)));
+    }
+}
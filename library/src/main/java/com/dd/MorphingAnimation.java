@@ -1,14 +1,16 @@
 package com.dd;
 
 import android.animation.Animator;
-import android.animation.AnimatorSet;
-import android.animation.ArgbEvaluator;
-import android.animation.ObjectAnimator;
+import android.animation.AnimatorListenerAdapter;
 import android.animation.ValueAnimator;
-import android.graphics.drawable.GradientDrawable;
-import android.widget.TextView;
+import android.graphics.Rect;
+import android.view.animation.LinearInterpolator;
 
-class MorphingAnimation {
+/**
+ * Morphs background bounds, corner radius, fill and stroke colors from a single float timeline.
+ * One instance is reused for all transitions of a button.
+ */
+class MorphingAnimation implements ValueAnimator.AnimatorUpdateListener {
 
     public static final int DURATION_NORMAL = 400;
     public static final int DURATION_INSTANT = 1;
@@ -17,27 +19,48 @@ class MorphingAnimation {
 
     private int mDuration;
 
-    private int mFromWidth;
-    private int mToWidth;
+    private final MorphGeometry mGeometry = new MorphGeometry();
 
-    private int mFromColor;
-    private int mToColor;
+    private MorphingDrawable mDrawable;
+    private ValueAnimator mAnimator;
+    private boolean mDispatchingEnd;
 
-    private int mFromStrokeColor;
-    private int mToStrokeColor;
-
-    private float mFromCornerRadius;
-    private float mToCornerRadius;
+    public MorphingAnimation(MorphingDrawable drawable) {
+        mDrawable = drawable;
+    }
 
-    private float mPadding;
+    /**
+     * The animator is created on the first morph, buttons that never leave their state don't need one.
+     */
+    ValueAnimator getAnimator() {
+        if (mAnimator == null) {
+            mAnimator = ValueAnimator.ofFloat(0f, 1f);
+            // MorphGeometry eases the fraction itself, the same way for buttons and renderer models
+            mAnimator.setInterpolator(new LinearInterpolator());
+            mAnimator.addUpdateListener(this);
+            mAnimator.addListener(new AnimatorListenerAdapter() {
+                @Override
+                public void onAnimationEnd(Animator animation) {
+                    if (mListener != null) {
+                        mDispatchingEnd = true;
+                        try {
+                            mListener.onAnimationEnd();
+                        } finally {
+                            mDispatchingEnd = false;
+                        }
+                    }
+                }
+            });
+        }
+        return mAnimator;
+    }
 
-    private TextView mView;
-    private StrokeGradientDrawable mDrawable;
-    private AnimatorSet animatorSet;
+    MorphGeometry getGeometry() {
+        return mGeometry;
+    }
 
-    public MorphingAnimation(TextView viewGroup, StrokeGradientDrawable drawable) {
-        mView = viewGroup;
-        mDrawable = drawable;
+    boolean hasAnimator() {
+        return mAnimator != null;
     }
 
     public void setDuration(int duration) {
@@ -48,110 +71,88 @@ class MorphingAnimation {
         mListener = listener;
     }
 
-    public void setFromWidth(int fromWidth) {
-        mFromWidth = fromWidth;
+    public void setFromShape(Rect bounds, float cornerRadius) {
+        mGeometry.fromLeft = bounds.left;
+        mGeometry.fromTop = bounds.top;
+        mGeometry.fromRight = bounds.right;
+        mGeometry.fromBottom = bounds.bottom;
+        mGeometry.fromCornerRadius = cornerRadius;
     }
 
-    public void setToWidth(int toWidth) {
-        mToWidth = toWidth;
+    public void setToShape(Rect bounds, float cornerRadius) {
+        mGeometry.toLeft = bounds.left;
+        mGeometry.toTop = bounds.top;
+        mGeometry.toRight = bounds.right;
+        mGeometry.toBottom = bounds.bottom;
+        mGeometry.toCornerRadius = cornerRadius;
+    }
+
+    /**
+     * Starts the next morph from the last applied frame, including its colors.
+     */
+    public void setFromCurrent() {
+        mGeometry.setFromCurrent();
     }
 
     public void setFromColor(int fromColor) {
-        mFromColor = fromColor;
+        mGeometry.fromColor = fromColor;
     }
 
     public void setToColor(int toColor) {
-        mToColor = toColor;
+        mGeometry.toColor = toColor;
     }
 
     public void setFromStrokeColor(int fromStrokeColor) {
-        mFromStrokeColor = fromStrokeColor;
+        mGeometry.fromStrokeColor = fromStrokeColor;
     }
 
     public void setToStrokeColor(int toStrokeColor) {
-        mToStrokeColor = toStrokeColor;
+        mGeometry.toStrokeColor = toStrokeColor;
     }
 
-    public void setFromCornerRadius(float fromCornerRadius) {
-        mFromCornerRadius = fromCornerRadius;
+    public void start() {
+        if (mDispatchingEnd) {
+            // Before API 24 an animator restarted from its own onAnimationEnd never ends again,
+            // so a morph started from the end listener gets a fresh one.
+            mAnimator = null;
+        }
+        ValueAnimator animator = getAnimator();
+        animator.setDuration(mDuration);
+        animator.start();
     }
 
-    public void setToCornerRadius(float toCornerRadius) {
-        mToCornerRadius = toCornerRadius;
+    public void cancel() {
+        if (mAnimator != null && mAnimator.isStarted()) {
+            mAnimator.cancel();
+        }
     }
 
-    public void setPadding(float padding) {
-        mPadding = padding;
+    /**
+     * Re-applies the running frame, e.g. after the shapes were updated for a new view size.
+     */
+    public void applyCurrent() {
+        if (mAnimator != null && mAnimator.isStarted()) {
+            apply(mAnimator.getAnimatedFraction());
+        }
     }
 
-    public void start() {
-        ValueAnimator widthAnimation = ValueAnimator.ofInt(mFromWidth, mToWidth);
-        final GradientDrawable gradientDrawable = mDrawable.getGradientDrawable();
-        widthAnimation.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-                Integer value = (Integer) animation.getAnimatedValue();
-                int leftOffset;
-                int rightOffset;
-                int padding;
-
-                if (mFromWidth > mToWidth) {
-                    leftOffset = (mFromWidth - value) / 2;
-                    rightOffset = mFromWidth - leftOffset;
-                    padding = (int) (mPadding * animation.getAnimatedFraction());
-                } else {
-                    leftOffset = (mToWidth - value) / 2;
-                    rightOffset = mToWidth - leftOffset;
-                    padding = (int) (mPadding - mPadding * animation.getAnimatedFraction());
-                }
-
-                gradientDrawable
-                        .setBounds(leftOffset + padding, padding, rightOffset - padding, mView.getHeight() - padding);
-            }
-        });
-
-        ObjectAnimator bgColorAnimation = ObjectAnimator.ofInt(gradientDrawable, "color", mFromColor, mToColor);
-        bgColorAnimation.setEvaluator(new ArgbEvaluator());
-
-        ObjectAnimator strokeColorAnimation =
-                ObjectAnimator.ofInt(mDrawable, "strokeColor", mFromStrokeColor, mToStrokeColor);
-        strokeColorAnimation.setEvaluator(new ArgbEvaluator());
-
-        ObjectAnimator cornerAnimation =
-                ObjectAnimator.ofFloat(gradientDrawable, "cornerRadius", mFromCornerRadius, mToCornerRadius);
-
-        animatorSet = new AnimatorSet();
-        animatorSet.setDuration(mDuration);
-        animatorSet.playTogether(widthAnimation, bgColorAnimation, strokeColorAnimation, cornerAnimation);
-        animatorSet.addListener(new Animator.AnimatorListener() {
-            @Override
-            public void onAnimationStart(Animator animation) {
-
-            }
-
-            @Override
-            public void onAnimationEnd(Animator animation) {
-                if (mListener != null) {
-                    mListener.onAnimationEnd();
-                }
-            }
-
-            @Override
-            public void onAnimationCancel(Animator animation) {
-
-            }
-
-            @Override
-            public void onAnimationRepeat(Animator animation) {
+    /**
+     * Applies the final frame right away, without running the animator or notifying the listener.
+     */
+    public void applyEnd() {
+        apply(1f);
+    }
 
-            }
-        });
-        animatorSet.start();
+    @Override
+    public void onAnimationUpdate(ValueAnimator animation) {
+        apply(animation.getAnimatedFraction());
     }
 
-    public void cancel() {
-        if (animatorSet != null && animatorSet.isRunning()) {
-            animatorSet.cancel();
-        }
+    private void apply(float fraction) {
+        MorphGeometry geometry = mGeometry;
+        geometry.compute(fraction);
+
+        mDrawable.setFrame(geometry.left, geometry.top, geometry.right, geometry.bottom,
+                geometry.cornerRadius, geometry.color, geometry.strokeColor);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,229 @@
+package com.dd;
+
+import android.annotation.TargetApi;
+import android.content.res.Resources;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Outline;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+
+/**
+ * Rounded rectangle with a fill and a stroke, drawn with two preallocated paints. All properties are
+ * primitives, so morph frames update it without allocating or rebuilding paths. Explicit shape bounds
+ * survive the host view resetting background bounds after {@code setBackground()}.
+ */
+class MorphingDrawable extends Drawable {
+
+    private final Paint mFillPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint mStrokePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final RectF mRect = new RectF();
+
+    private final Rect mShapeBounds = new Rect();
+    private boolean mHasShapeBounds;
+
+    private int mColor;
+    private int mStrokeColor;
+    private int mStrokeWidth;
+    private float mCornerRadius;
+    private int mAlpha = 255;
+
+    private MorphingState mConstantState;
+
+    public MorphingDrawable(int color, int strokeColor, int strokeWidth, float cornerRadius) {
+        mFillPaint.setStyle(Paint.Style.FILL);
+        mStrokePaint.setStyle(Paint.Style.STROKE);
+        mColor = color;
+        mStrokeColor = strokeColor;
+        mStrokeWidth = strokeWidth;
+        mCornerRadius = cornerRadius;
+        mStrokePaint.setStrokeWidth(strokeWidth);
+        updatePaintColors();
+    }
+
+    public int getColor() {
+        return mColor;
+    }
+
+    public void setColor(int color) {
+        if (mColor != color) {
+            mColor = color;
+            updatePaintColors();
+            invalidateSelf();
+        }
+    }
+
+    public int getStrokeColor() {
+        return mStrokeColor;
+    }
+
+    public void setStrokeColor(int strokeColor) {
+        if (mStrokeColor != strokeColor) {
+            mStrokeColor = strokeColor;
+            updatePaintColors();
+            invalidateSelf();
+        }
+    }
+
+    public int getStrokeWidth() {
+        return mStrokeWidth;
+    }
+
+    public void setStrokeWidth(int strokeWidth) {
+        if (mStrokeWidth != strokeWidth) {
+            mStrokeWidth = strokeWidth;
+            mStrokePaint.setStrokeWidth(strokeWidth);
+            invalidateSelf();
+        }
+    }
+
+    public float getCornerRadius() {
+        return mCornerRadius;
+    }
+
+    public void setCornerRadius(float cornerRadius) {
+        if (mCornerRadius != cornerRadius) {
+            mCornerRadius = cornerRadius;
+            invalidateSelf();
+        }
+    }
+
+    public void setShapeBounds(int left, int top, int right, int bottom) {
+        mShapeBounds.set(left, top, right, bottom);
+        mHasShapeBounds = true;
+        invalidateSelf();
+    }
+
+    /**
+     * Applies a whole morph frame with a single invalidation.
+     */
+    public void setFrame(int left, int top, int right, int bottom, float cornerRadius, int color, int strokeColor) {
+        mShapeBounds.set(left, top, right, bottom);
+        mHasShapeBounds = true;
+        mCornerRadius = cornerRadius;
+        if (mColor != color || mStrokeColor != strokeColor) {
+            mColor = color;
+            mStrokeColor = strokeColor;
+            updatePaintColors();
+        }
+        invalidateSelf();
+    }
+
+    private void updatePaintColors() {
+        applyColor(mFillPaint, mColor);
+        applyColor(mStrokePaint, mStrokeColor);
+    }
+
+    private void applyColor(Paint paint, int color) {
+        paint.setColor(color);
+        if (mAlpha != 255) {
+            paint.setAlpha((color >>> 24) * mAlpha / 255);
+        }
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+        Rect bounds = getShapeBounds();
+        // like GradientDrawable, fill and stroke share the rect inset by half the stroke
+        float inset = mStrokeWidth / 2f;
+        mRect.set(bounds.left + inset, bounds.top + inset, bounds.right - inset, bounds.bottom - inset);
+        float radius = Math.min(mCornerRadius, Math.min(mRect.width(), mRect.height()) / 2f);
+        if (radius < 0) {
+            radius = 0;
+        }
+
+        if ((mColor >>> 24) != 0) {
+            canvas.drawRoundRect(mRect, radius, radius, mFillPaint);
+        }
+        if (mStrokeWidth > 0 && (mStrokeColor >>> 24) != 0) {
+            canvas.drawRoundRect(mRect, radius, radius, mStrokePaint);
+        }
+    }
+
+    private Rect getShapeBounds() {
+        return mHasShapeBounds ? mShapeBounds : getBounds();
+    }
+
+    /**
+     * Casts the elevation shadow of the current morph frame.
+     */
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    @Override
+    public void getOutline(Outline outline) {
+        Rect bounds = getShapeBounds();
+        float radius = Math.min(mCornerRadius, Math.min(bounds.width(), bounds.height()) / 2f);
+        outline.setRoundRect(bounds, Math.max(0, radius));
+        outline.setAlpha(mAlpha / 255f * (mColor >>> 24) / 255f);
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        if (mAlpha != alpha) {
+            mAlpha = alpha;
+            updatePaintColors();
+            invalidateSelf();
+        }
+    }
+
+    @Override
+    public int getAlpha() {
+        return mAlpha;
+    }
+
+    @Override
+    public void setColorFilter(ColorFilter cf) {
+        mFillPaint.setColorFilter(cf);
+        mStrokePaint.setColorFilter(cf);
+        invalidateSelf();
+    }
+
+    @Override
+    public int getOpacity() {
+        return PixelFormat.TRANSLUCENT;
+    }
+
+    @Override
+    public ConstantState getConstantState() {
+        MorphingState state = mConstantState;
+        if (state == null || state.color != mColor || state.strokeColor != mStrokeColor
+                || state.strokeWidth != mStrokeWidth || state.cornerRadius != mCornerRadius) {
+            // only rebuilt after the properties changed, repeated calls share one instance
+            state = new MorphingState(mColor, mStrokeColor, mStrokeWidth, mCornerRadius);
+            mConstantState = state;
+        }
+        return state;
+    }
+
+    static class MorphingState extends ConstantState {
+        final int color;
+        final int strokeColor;
+        final int strokeWidth;
+        final float cornerRadius;
+
+        MorphingState(int color, int strokeColor, int strokeWidth, float cornerRadius) {
+            this.color = color;
+            this.strokeColor = strokeColor;
+            this.strokeWidth = strokeWidth;
+            this.cornerRadius = cornerRadius;
+        }
+
+        @Override
+        public Drawable newDrawable() {
+            return new MorphingDrawable(color, strokeColor, strokeWidth, cornerRadius);
+        }
+
+        @Override
+        public Drawable newDrawable(Resources res) {
+            return newDrawable();
+        }
+
+        @Override
+        public int getChangingConfigurations() {
+            return 0;
+        }
+    }
+}
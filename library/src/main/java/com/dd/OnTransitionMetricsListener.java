@@ -0,0 +1,6 @@
+package com.dd;
+
+public interface OnTransitionMetricsListener {
+
+    public void onTransitionMetrics(CircularProgressButton button, TransitionMetrics metrics);
+}
@@ -0,0 +1,151 @@
+package com.dd;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Applies progress updates for many buttons in one pass per frame. Updates can be posted from any
+ * thread; the latest progress of every button is applied on the main thread at the start of the next
+ * frame, before views are drawn, so all resulting invalidations end up in a single traversal.
+ * Buttons whose progress didn't change since the last pass are skipped.
+ */
+public class ProgressButtonGroup {
+
+    private static final AtomicInteger sNextId = new AtomicInteger();
+    private static final ProgressButtonGroup sShared = new ProgressButtonGroup();
+
+    /**
+     * Index of this group in {@link CircularProgressButton#mGroupSlots}, where every button keeps the
+     * slot of its update in the pending list, so a button can be driven by several groups at once.
+     */
+    private final int mId = sNextId.getAndIncrement();
+
+    private final FrameScheduler mFrameScheduler = new FrameScheduler(new FrameScheduler.Callback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            applyPending();
+        }
+    });
+    private boolean mFramePending;
+
+    private ArrayList<CircularProgressButton> mPendingButtons = new ArrayList<>();
+    private int[] mPendingProgress = new int[16];
+
+    private ArrayList<CircularProgressButton> mApplyingButtons = new ArrayList<>();
+    private int[] mApplyingProgress = new int[16];
+
+    /**
+     * Group behind {@link CircularProgressButton#postProgress(int)}, so buttons don't need a frame
+     * scheduler of their own.
+     */
+    static ProgressButtonGroup getShared() {
+        return sShared;
+    }
+
+    public synchronized void setProgress(CircularProgressButton button, int progress) {
+        int pendingSlot = getPendingSlot(button);
+        if (pendingSlot != -1) {
+            mPendingProgress[pendingSlot] = progress;
+        } else {
+            int slot = mPendingButtons.size();
+            if (slot == mPendingProgress.length) {
+                int[] progressArray = new int[slot * 2];
+                System.arraycopy(mPendingProgress, 0, progressArray, 0, slot);
+                mPendingProgress = progressArray;
+            }
+            mPendingButtons.add(button);
+            mPendingProgress[slot] = progress;
+            setPendingSlot(button, slot);
+        }
+
+        if (!mFramePending) {
+            mFramePending = true;
+            mFrameScheduler.scheduleFrame();
+        }
+    }
+
+    /**
+     * Posts a batch of updates, {@code progress[i]} belongs to {@code buttons[i]}.
+     */
+    public synchronized void setProgress(CircularProgressButton[] buttons, int[] progress) {
+        if (buttons.length != progress.length) {
+            throw new IllegalArgumentException("buttons and progress must have the same length");
+        }
+        for (int i = 0; i < buttons.length; i++) {
+            setProgress(buttons[i], progress[i]);
+        }
+    }
+
+    /**
+     * Drops pending updates of the button, e.g. when it is recycled for another item.
+     */
+    public synchronized void remove(CircularProgressButton button) {
+        int slot = getPendingSlot(button);
+        if (slot != -1) {
+            // keep the slots of other buttons stable until the next pass
+            mPendingButtons.set(slot, null);
+        }
+    }
+
+    private void applyPending() {
+        ArrayList<CircularProgressButton> buttons;
+        int[] progress;
+        synchronized (this) {
+            mFramePending = false;
+            buttons = mPendingButtons;
+            progress = mPendingProgress;
+            mPendingButtons = mApplyingButtons;
+            mPendingProgress = mApplyingProgress;
+            mApplyingButtons = buttons;
+            mApplyingProgress = progress;
+        }
+
+        for (int i = 0, size = buttons.size(); i < size; i++) {
+            CircularProgressButton button = buttons.get(i);
+            if (button != null && button.getProgress() != progress[i]) {
+                button.setProgress(progress[i]);
+            }
+        }
+        buttons.clear();
+    }
+
+    /**
+     * Slots are never cleared, a stored slot only counts while the pending list still holds the button
+     * there.
+     */
+    private int getPendingSlot(CircularProgressButton button) {
+        int[] slots = button.mGroupSlots;
+        if (slots == null || mId >= slots.length) {
+            return -1;
+        }
+        int slot = slots[mId];
+        return slot < mPendingButtons.size() && mPendingButtons.get(slot) == button ? slot : -1;
+    }
+
+    private void setPendingSlot(CircularProgressButton button, int slot) {
+        int[] slots = button.mGroupSlots;
+        if (slots == null || mId >= slots.length) {
+            slots = growSlots(button, mId);
+        }
+        slots[mId] = slot;
+    }
+
+    /**
+     * Groups grow a button's slots under their own locks, a slot written while another group grows the
+     * array can get lost. That only costs a second pending entry, which is applied after the stale one.
+     */
+    private static int[] growSlots(CircularProgressButton button, int id) {
+        synchronized (ProgressButtonGroup.class) {
+            int[] slots = button.mGroupSlots;
+            if (slots == null || id >= slots.length) {
+                int[] grown = new int[id + 1];
+                if (slots != null) {
+                    System.arraycopy(slots, 0, grown, 0, slots.length);
+                }
+                button.mGroupSlots = grown;
+                slots = grown;
+            }
+            return slots;
+        }
+    }
+}
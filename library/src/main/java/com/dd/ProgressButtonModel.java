@@ -0,0 +1,85 @@
+package com.dd;
+
+import com.dd.CircularProgressButton.StateType;
+
+import android.graphics.Rect;
+
+/**
+ * Lightweight stand-in for a {@link CircularProgressButton} drawn by a {@link ProgressButtonRenderer}.
+ * Holds only the cell bounds, progress and the running morph; all other drawing state is shared by
+ * the renderer.
+ */
+public class ProgressButtonModel {
+
+    /**
+     * Cell bounds in the coordinates of the host view.
+     */
+    public final Rect bounds = new Rect();
+
+    private int mProgress;
+    private boolean mIndeterminate;
+    private StateType mState = StateType.IDLE;
+    private StateType mFromState = StateType.IDLE;
+    private long mMorphStartTime = Long.MIN_VALUE;
+
+    /**
+     * Morph of the model, holding the last drawn frame.
+     */
+    final MorphGeometry mGeometry = new MorphGeometry();
+    boolean mHasFrame;
+    /**
+     * The running morph was retargeted and starts from the frame drawn at that moment.
+     */
+    boolean mMorphFromFrame;
+
+    public int getProgress() {
+        return mProgress;
+    }
+
+    /**
+     * Same progress semantics as {@link CircularProgressButton#setProgress(int)}. Starts a morph on the
+     * renderer clock if the state changes.
+     */
+    public void setProgress(int progress) {
+        mProgress = progress;
+        StateType state = CircularProgressButton.toStateType(
+                ProgressStateMachine.getState(progress, CircularProgressButton.SUCCESS_STATE_PROGRESS));
+        if (state != null && state != mState) {
+            long now = ProgressButtonRenderer.now();
+            mMorphFromFrame = mHasFrame && getMorphFraction(now) < 1f;
+            if (mMorphFromFrame) {
+                mGeometry.setFromCurrent();
+            }
+            mFromState = mState;
+            mState = state;
+            mMorphStartTime = now;
+        }
+    }
+
+    public boolean isIndeterminate() {
+        return mIndeterminate;
+    }
+
+    public void setIndeterminate(boolean indeterminate) {
+        mIndeterminate = indeterminate;
+    }
+
+    public StateType getState() {
+        return mState;
+    }
+
+    StateType getFromState() {
+        return mFromState;
+    }
+
+    /**
+     * @return linear progress of the morph into the current state at the given renderer time, 1 when settled
+     */
+    float getMorphFraction(long now) {
+        long elapsed = now - mMorphStartTime;
+        if (mMorphStartTime == Long.MIN_VALUE || elapsed >= ProgressButtonRenderer.MORPH_DURATION) {
+            return 1f;
+        }
+        return elapsed <= 0 ? 0f : (float) elapsed / ProgressButtonRenderer.MORPH_DURATION;
+    }
+}
@@ -0,0 +1,280 @@
+package com.dd;
+
+import com.dd.CircularProgressButton.StateType;
+import com.dd.circular.progress.button.R;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.text.Layout;
+import android.text.TextPaint;
+import android.text.TextUtils;
+import android.view.animation.AnimationUtils;
+
+import java.util.List;
+
+/**
+ * Draws any number of {@link ProgressButtonModel}s onto one canvas, for grids where a view per
+ * button would be too heavy. Shapes, indicators and text are drawn with the same code as
+ * {@link CircularProgressButton}, paints and drawables are shared by all models, and morphs and spinners
+ * run on one clock, so a host view only has to call {@link #draw} from {@code onDraw()} and
+ * invalidate itself while it returns true.
+ * <p>
+ * Main thread only.
+ */
+public class ProgressButtonRenderer {
+
+    public static final int MORPH_DURATION = MorphingAnimation.DURATION_NORMAL;
+
+    private static final StateType[] STATE_TYPES = StateType.values();
+
+    private final MorphingDrawable mBackground;
+    private final SpinnerGeometry mSpinner = new SpinnerGeometry();
+    private final TextPaint mTextPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private CircularAnimatedDrawable mSpinnerStamp;
+    private CircularProgressDrawable mProgressStamp;
+
+    private final Rect mShape = new Rect();
+
+    private final int[] mColors = new int[STATE_TYPES.length];
+    private final CharSequence[] mTexts = new CharSequence[STATE_TYPES.length];
+    private final TextLayoutCache[] mTextLayouts = new TextLayoutCache[STATE_TYPES.length];
+    private int mIndicatorColor;
+    private int mIndicatorBackgroundColor;
+    private int mStrokeWidth;
+    private float mCornerRadius;
+    private int mPaddingProgress;
+
+    private long mClockStart = Long.MIN_VALUE;
+
+    /**
+     * Starts with the default colors and stroke width of {@link CircularProgressButton}.
+     */
+    public ProgressButtonRenderer(Context context) {
+        Resources resources = context.getResources();
+        mColors[StateType.IDLE.ordinal()] = getNormalColor(resources, R.color.cpb_idle_state_selector);
+        mColors[StateType.COMPLETE.ordinal()] = getNormalColor(resources, R.color.cpb_complete_state_selector);
+        mColors[StateType.ERROR.ordinal()] = getNormalColor(resources, R.color.cpb_error_state_selector);
+        mColors[StateType.PROGRESS.ordinal()] = resources.getColor(R.color.cpb_white);
+        mIndicatorColor = resources.getColor(R.color.cpb_blue);
+        mIndicatorBackgroundColor = resources.getColor(R.color.cpb_grey);
+        mStrokeWidth = resources.getDimensionPixelSize(R.dimen.cpb_stroke_width);
+
+        mBackground = new MorphingDrawable(0, 0, mStrokeWidth, 0);
+
+        mTextPaint.setColor(resources.getColor(R.color.cpb_white));
+    }
+
+    private static int getNormalColor(Resources resources, int selector) {
+        return StyleCache.resolveColors(resources.getColorStateList(selector))[StyleCache.COLOR_NORMAL];
+    }
+
+    /**
+     * Renderer clock in milliseconds, shared by model morphs and spinners.
+     */
+    public static long now() {
+        return AnimationUtils.currentAnimationTimeMillis();
+    }
+
+    public void setColor(StateType state, int color) {
+        mColors[state.ordinal()] = color;
+    }
+
+    public void setText(StateType state, CharSequence text) {
+        mTexts[state.ordinal()] = text;
+    }
+
+    public void setIndicatorColor(int color) {
+        mIndicatorColor = color;
+        releaseStamps();
+    }
+
+    public void setIndicatorBackgroundColor(int color) {
+        mIndicatorBackgroundColor = color;
+    }
+
+    public void setStrokeWidth(int strokeWidth) {
+        mStrokeWidth = strokeWidth;
+        mBackground.setStrokeWidth(strokeWidth);
+        releaseStamps();
+    }
+
+    public void setCornerRadius(float cornerRadius) {
+        mCornerRadius = cornerRadius;
+    }
+
+    public void setPaddingProgress(int paddingProgress) {
+        mPaddingProgress = paddingProgress;
+    }
+
+    public TextPaint getTextPaint() {
+        return mTextPaint;
+    }
+
+    private void releaseStamps() {
+        mSpinnerStamp = null;
+        mProgressStamp = null;
+    }
+
+    /**
+     * Draws all models in order.
+     *
+     * @return true while a model morphs or spins and the host should draw another frame
+     */
+    public boolean draw(Canvas canvas, List<ProgressButtonModel> models) {
+        long now = now();
+        if (mClockStart == Long.MIN_VALUE) {
+            mClockStart = now;
+        }
+        // all spinners share one phase, so the geometry is computed once per pass
+        mSpinner.update(now - mClockStart);
+
+        boolean animating = false;
+        for (int i = 0, size = models.size(); i < size; i++) {
+            animating |= draw(canvas, models.get(i), now);
+        }
+        return animating;
+    }
+
+    private boolean draw(Canvas canvas, ProgressButtonModel model, long now) {
+        Rect bounds = model.bounds;
+        if (bounds.isEmpty()) {
+            return false;
+        }
+
+        StateType fromState = model.getFromState();
+        StateType state = model.getState();
+        float fraction = model.getMorphFraction(now);
+
+        MorphGeometry geometry = model.mGeometry;
+        if (!model.mMorphFromFrame) {
+            geometry.fromCornerRadius = getShape(fromState, bounds);
+            geometry.fromLeft = mShape.left;
+            geometry.fromTop = mShape.top;
+            geometry.fromRight = mShape.right;
+            geometry.fromBottom = mShape.bottom;
+            geometry.fromColor = mColors[fromState.ordinal()];
+            geometry.fromStrokeColor = getStrokeColor(fromState);
+        }
+        geometry.toCornerRadius = getShape(state, bounds);
+        geometry.toLeft = mShape.left;
+        geometry.toTop = mShape.top;
+        geometry.toRight = mShape.right;
+        geometry.toBottom = mShape.bottom;
+        geometry.toColor = mColors[state.ordinal()];
+        geometry.toStrokeColor = getStrokeColor(state);
+        geometry.compute(fraction);
+        model.mHasFrame = true;
+
+        mBackground.setFrame(geometry.left, geometry.top, geometry.right, geometry.bottom,
+                geometry.cornerRadius, geometry.color, geometry.strokeColor);
+        mBackground.draw(canvas);
+
+        boolean morphing = fraction < 1f;
+        if (state == StateType.PROGRESS) {
+            if (morphing || model.getProgress() <= 0) {
+                return morphing;
+            }
+            getShape(state, bounds);
+            if (model.isIndeterminate()) {
+                CircularAnimatedDrawable spinner = getSpinnerStamp();
+                spinner.setBounds(mShape);
+                spinner.draw(canvas, mSpinner.startAngle, mSpinner.sweepAngle);
+                return true;
+            }
+            CircularProgressDrawable progress = getProgressStamp();
+            progress.setBounds(mShape);
+            progress.jumpToSweepAngle(360f * model.getProgress() / CircularProgressButton.SUCCESS_STATE_PROGRESS);
+            progress.draw(canvas);
+        } else if (fromState != StateType.PROGRESS || !morphing) {
+            CharSequence text = mTexts[state.ordinal()];
+            if (!TextUtils.isEmpty(text)) {
+                drawText(canvas, getTextLayout(state), text, mTextPaint,
+                        bounds.left, bounds.top, bounds.right, bounds.bottom);
+            }
+        }
+        return morphing;
+    }
+
+    private float getShape(StateType state, Rect bounds) {
+        return getShape(state, bounds.left, bounds.top, bounds.right, bounds.bottom, mPaddingProgress,
+                mCornerRadius, mShape);
+    }
+
+    private int getStrokeColor(StateType state) {
+        return state == StateType.PROGRESS ? mIndicatorBackgroundColor : mColors[state.ordinal()];
+    }
+
+    private TextLayoutCache getTextLayout(StateType state) {
+        TextLayoutCache layout = mTextLayouts[state.ordinal()];
+        if (layout == null) {
+            layout = new TextLayoutCache();
+            mTextLayouts[state.ordinal()] = layout;
+        }
+        return layout;
+    }
+
+    /**
+     * The spinner is drawn as a stamp at the renderer phase, it is never started.
+     */
+    private CircularAnimatedDrawable getSpinnerStamp() {
+        if (mSpinnerStamp == null) {
+            mSpinnerStamp = new CircularAnimatedDrawable(mIndicatorColor, mStrokeWidth);
+        }
+        return mSpinnerStamp;
+    }
+
+    private CircularProgressDrawable getProgressStamp() {
+        if (mProgressStamp == null) {
+            mProgressStamp = new CircularProgressDrawable(0, mStrokeWidth, mIndicatorColor);
+        }
+        return mProgressStamp;
+    }
+
+    /**
+     * Background shape of a button with the given bounds, shared with {@link CircularProgressButton}: a
+     * centered square of the height minus the progress padding for progress, the whole bounds otherwise.
+     * The progress shape also bounds the progress indicators.
+     *
+     * @return corner radius of the shape
+     */
+    static float getShape(StateType state, int left, int top, int right, int bottom, int paddingProgress,
+                          float cornerRadius, Rect outShape) {
+        if (state == StateType.PROGRESS) {
+            int height = bottom - top;
+            int size = height - paddingProgress * 2;
+            int shapeLeft = left + (right - left - size) / 2;
+            outShape.set(shapeLeft, top + paddingProgress, shapeLeft + size, top + paddingProgress + size);
+            return height;
+        }
+        outShape.set(left, top, right, bottom);
+        return cornerRadius;
+    }
+
+    /**
+     * Draws state text centered in the given box, shared with the content layer of
+     * {@link CircularProgressButton}.
+     */
+    static void drawText(Canvas canvas, TextLayoutCache cache, CharSequence text, TextPaint paint,
+                         int left, int top, int right, int bottom) {
+        Layout layout = cache.obtain(text, paint, Math.max(0, right - left));
+        int saveCount = canvas.save();
+        canvas.translate(left, top + (bottom - top - layout.getHeight()) / 2);
+        layout.draw(canvas);
+        canvas.restoreToCount(saveCount);
+    }
+
+    /**
+     * @return index of the topmost model whose cell contains the point or -1
+     */
+    public int hitTest(List<ProgressButtonModel> models, int x, int y) {
+        for (int i = models.size() - 1; i >= 0; i--) {
+            if (models.get(i).bounds.contains(x, y)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,37 @@
+package com.dd;
+
+/**
+ * Maps progress values to button states. Kept free of Android dependencies, so it builds and benchmarks
+ * on a plain JVM.
+ */
+class ProgressStateMachine {
+
+    static final int IDLE_PROGRESS = 0;
+    static final int ERROR_PROGRESS = -1;
+    static final int SUCCESS_PROGRESS = 100;
+
+    static final int STATE_NONE = -1;
+    static final int STATE_PROGRESS = 0;
+    static final int STATE_IDLE = 1;
+    static final int STATE_COMPLETE = 2;
+    static final int STATE_ERROR = 3;
+
+    private ProgressStateMachine() {
+    }
+
+    /**
+     * @return one of the {@code STATE_*} constants, {@link #STATE_NONE} if the progress doesn't map to any state
+     */
+    static int getState(int progress, int maxProgress) {
+        if (progress >= maxProgress) {
+            return STATE_COMPLETE;
+        } else if (progress > IDLE_PROGRESS) {
+            return STATE_PROGRESS;
+        } else if (progress == ERROR_PROGRESS) {
+            return STATE_ERROR;
+        } else if (progress == IDLE_PROGRESS) {
+            return STATE_IDLE;
+        }
+        return STATE_NONE;
+    }
+}
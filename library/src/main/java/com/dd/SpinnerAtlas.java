@@ -0,0 +1,139 @@
+package com.dd;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Pre-rendered spinner arcs of one size and stroke width, packed into a single alpha bitmap. Each
+ * frame holds an arc starting at 0 degrees; spinners pick the frame closest to their sweep, rotate
+ * the canvas to their start angle and blit it with their own color instead of rasterizing the arc.
+ * <p>
+ * Atlases are shared by all spinners of the same style through a process-wide LRU cache bounded by
+ * {@link #MAX_CACHE_BYTES}. Main thread only.
+ */
+class SpinnerAtlas {
+
+    static final int FRAME_COUNT = 64;
+    private static final int COLUMNS = 8;
+
+    private static final int MIN_SWEEP_ANGLE = SpinnerGeometry.MIN_SWEEP_ANGLE;
+    private static final int MAX_SWEEP_ANGLE = 360 - SpinnerGeometry.MIN_SWEEP_ANGLE;
+
+    static final int MAX_CACHE_BYTES = 4 * 1024 * 1024;
+
+    private static int sCacheBytes;
+    private static final Map<Key, SpinnerAtlas> sAtlases = new LinkedHashMap<>(4, 0.75f, true);
+
+    private final Bitmap mBitmap;
+    private final int mSize;
+    private final Rect mSrc = new Rect();
+
+    private SpinnerAtlas(int size, float strokeWidth) {
+        mSize = size;
+        int rows = (FRAME_COUNT + COLUMNS - 1) / COLUMNS;
+        mBitmap = Bitmap.createBitmap(size * COLUMNS, size * rows, Bitmap.Config.ALPHA_8);
+
+        Paint paint = new Paint();
+        paint.setAntiAlias(true);
+        paint.setStyle(Paint.Style.STROKE);
+        paint.setStrokeWidth(strokeWidth);
+
+        Canvas canvas = new Canvas(mBitmap);
+        RectF oval = new RectF();
+        float inset = strokeWidth / 2f + .5f;
+        for (int i = 0; i < FRAME_COUNT; i++) {
+            int left = (i % COLUMNS) * size;
+            int top = (i / COLUMNS) * size;
+            oval.set(left + inset, top + inset, left + size - inset, top + size - inset);
+            canvas.drawArc(oval, 0, getFrameSweepAngle(i), false, paint);
+        }
+    }
+
+    /**
+     * @return shared atlas for the style or null if it doesn't fit into the cache budget
+     */
+    public static SpinnerAtlas obtain(int size, float strokeWidth) {
+        if (size <= 0 || getByteCount(size) > MAX_CACHE_BYTES) {
+            return null;
+        }
+
+        Key key = new Key(size, strokeWidth);
+        SpinnerAtlas atlas = sAtlases.get(key);
+        if (atlas == null) {
+            atlas = new SpinnerAtlas(size, strokeWidth);
+            sAtlases.put(key, atlas);
+            sCacheBytes += getByteCount(size);
+            trimToBudget();
+        }
+        return atlas;
+    }
+
+    /**
+     * Evicted atlases are only dropped from the cache, spinners still drawing them keep them alive.
+     */
+    private static void trimToBudget() {
+        Iterator<SpinnerAtlas> iterator = sAtlases.values().iterator();
+        while (sCacheBytes > MAX_CACHE_BYTES && iterator.hasNext()) {
+            sCacheBytes -= getByteCount(iterator.next().mSize);
+            iterator.remove();
+        }
+    }
+
+    private static int getByteCount(int size) {
+        int rows = (FRAME_COUNT + COLUMNS - 1) / COLUMNS;
+        return size * COLUMNS * size * rows;
+    }
+
+    private static float getFrameSweepAngle(int frame) {
+        return MIN_SWEEP_ANGLE + (float) (MAX_SWEEP_ANGLE - MIN_SWEEP_ANGLE) * frame / (FRAME_COUNT - 1);
+    }
+
+    /**
+     * Draws the frame closest to the sweep into the bounds, rotated to the start angle. The paint
+     * defines the color.
+     */
+    public void draw(Canvas canvas, Rect bounds, float startAngle, float sweepAngle, Paint paint) {
+        int frame = Math.round((sweepAngle - MIN_SWEEP_ANGLE) * (FRAME_COUNT - 1) / (MAX_SWEEP_ANGLE - MIN_SWEEP_ANGLE));
+        frame = Math.max(0, Math.min(FRAME_COUNT - 1, frame));
+
+        int left = (frame % COLUMNS) * mSize;
+        int top = (frame / COLUMNS) * mSize;
+        mSrc.set(left, top, left + mSize, top + mSize);
+
+        int saveCount = canvas.save();
+        canvas.rotate(startAngle, bounds.exactCenterX(), bounds.exactCenterY());
+        canvas.drawBitmap(mBitmap, mSrc, bounds, paint);
+        canvas.restoreToCount(saveCount);
+    }
+
+    private static class Key {
+        final int size;
+        final float strokeWidth;
+
+        Key(int size, float strokeWidth) {
+            this.size = size;
+            this.strokeWidth = strokeWidth;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+
+            Key key = (Key) o;
+            return size == key.size && Float.compare(strokeWidth, key.strokeWidth) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * size + Float.floatToIntBits(strokeWidth);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.dd;
+
+/**
+ * Indeterminate spinner math without Android dependencies. Turns the time elapsed since the spinner
+ * started into the start and sweep angles of the arc to draw. The result depends only on the elapsed
+ * time, so any frame can be computed directly without replaying the ones before it.
+ */
+class SpinnerGeometry {
+
+    static final int ANGLE_DURATION = 2000;
+    static final int SWEEP_DURATION = 600;
+    static final int MIN_SWEEP_ANGLE = 30;
+
+    float startAngle;
+    float sweepAngle;
+
+    void update(long elapsed) {
+        if (elapsed < 0) {
+            elapsed = 0;
+        }
+
+        float globalAngle = 360f * (elapsed % ANGLE_DURATION) / ANGLE_DURATION;
+
+        // sweep cycles alternate between disappearing (even) and appearing (odd), and every appearing
+        // cycle shifts the arc forward by twice the minimum sweep
+        long sweepCycle = elapsed / SWEEP_DURATION;
+        boolean appearing = (sweepCycle & 1) == 1;
+        long appearingCycles = (sweepCycle + 1) / 2;
+        float globalAngleOffset = (appearingCycles % 360) * (MIN_SWEEP_ANGLE * 2) % 360;
+
+        float sweepFraction = (float) (elapsed % SWEEP_DURATION) / SWEEP_DURATION;
+        float sweep = decelerate(sweepFraction) * (360f - MIN_SWEEP_ANGLE * 2);
+
+        startAngle = globalAngle - globalAngleOffset;
+        if (!appearing) {
+            startAngle = startAngle + sweep;
+            sweepAngle = 360 - sweep - MIN_SWEEP_ANGLE;
+        } else {
+            sweepAngle = sweep + MIN_SWEEP_ANGLE;
+        }
+    }
+
+    /**
+     * Same curve as {@link android.view.animation.DecelerateInterpolator} with the default factor.
+     */
+    static float decelerate(float input) {
+        return 1.0f - (1.0f - input) * (1.0f - input);
+    }
+}
@@ -0,0 +1,66 @@
+package com.dd;
+
+import java.util.ArrayList;
+
+/**
+ * Shared main thread clock for all indeterminate spinners. A spinner is ticked only while it keeps
+ * being drawn, so the cost of a frame grows with the number of visible spinners and a single frame
+ * callback serves all of them.
+ */
+class SpinnerTicker implements FrameScheduler.Callback {
+
+    private static SpinnerTicker sInstance;
+
+    private final ArrayList<CircularAnimatedDrawable> mSpinners = new ArrayList<>();
+    private final FrameScheduler mFrameScheduler = new FrameScheduler(this);
+    private boolean mFrameScheduled;
+
+    public static SpinnerTicker getInstance() {
+        if (sInstance == null) {
+            sInstance = new SpinnerTicker();
+        }
+        return sInstance;
+    }
+
+    static long now() {
+        return System.nanoTime() / 1000000L;
+    }
+
+    public void onSpinnerDrawn(CircularAnimatedDrawable spinner) {
+        spinner.mDrawnSinceTick = true;
+        if (!spinner.mTicking) {
+            spinner.mTicking = true;
+            mSpinners.add(spinner);
+        }
+        if (!mFrameScheduled) {
+            mFrameScheduled = true;
+            mFrameScheduler.scheduleFrame();
+        }
+    }
+
+    public void remove(CircularAnimatedDrawable spinner) {
+        if (spinner.mTicking) {
+            spinner.mTicking = false;
+            mSpinners.remove(spinner);
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        mFrameScheduled = false;
+        long frameTime = frameTimeNanos / 1000000L;
+
+        for (int i = mSpinners.size() - 1; i >= 0; i--) {
+            CircularAnimatedDrawable spinner = mSpinners.get(i);
+            if (!spinner.mDrawnSinceTick) {
+                spinner.mTicking = false;
+                int last = mSpinners.size() - 1;
+                mSpinners.set(i, mSpinners.get(last));
+                mSpinners.remove(last);
+                continue;
+            }
+            spinner.mDrawnSinceTick = false;
+            spinner.onTick(frameTime);
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package com.dd;
 
+import com.dd.CircularProgressButton.StateType;
+
+import java.util.ArrayDeque;
+
 class StateManager {
 
     private boolean mIsEnabled;
     private int mProgress;
+    private ArrayDeque<PendingState> mPendingStates;
 
     public StateManager(CircularProgressButton progressButton) {
         mIsEnabled = progressButton.isEnabled();
@@ -22,11 +27,55 @@ class StateManager {
         return mProgress;
     }
 
+    /**
+     * Queues a state to be played after the running morph, skipping repeats of the last queued one.
+     */
+    public void enqueue(StateType stateType, boolean instant) {
+        if (mPendingStates == null) {
+            // only buttons using TransitionPolicy.PLAY_ALL ever queue states
+            mPendingStates = new ArrayDeque<>(4);
+        }
+        if (stateType == null) {
+            return;
+        }
+        PendingState last = mPendingStates.peekLast();
+        if (last == null || last.type != stateType) {
+            mPendingStates.addLast(new PendingState(stateType, instant));
+        }
+    }
+
+    public boolean hasPendingStates() {
+        return mPendingStates != null && !mPendingStates.isEmpty();
+    }
+
+    public void clearPendingStates() {
+        if (mPendingStates != null) {
+            mPendingStates.clear();
+        }
+    }
+
     public void checkState(CircularProgressButton progressButton) {
+        PendingState pendingState;
+        while (mPendingStates != null && (pendingState = mPendingStates.pollFirst()) != null) {
+            if (progressButton.morphTo(pendingState.type, pendingState.instant)) {
+                return;
+            }
+        }
+
         if (progressButton.getProgress() != getProgress()) {
-            progressButton.setProgress(progressButton.getProgress());
+            progressButton.applyProgress(progressButton.getProgress(), false);
         } else if(progressButton.isEnabled() != isEnabled()) {
             progressButton.setEnabled(progressButton.isEnabled());
         }
     }
+
+    private static class PendingState {
+        final StateType type;
+        final boolean instant;
+
+        PendingState(StateType type, boolean instant) {
+            this.type = type;
+            this.instant = instant;
+        }
+    }
 }
@@ -1,37 +0,0 @@
-package com.dd;
-
-import android.graphics.drawable.GradientDrawable;
-
-public class StrokeGradientDrawable {
-
-    private int mStrokeWidth;
-    private int mStrokeColor;
-
-    private GradientDrawable mGradientDrawable;
-
-    public StrokeGradientDrawable(GradientDrawable drawable) {
-        mGradientDrawable = drawable;
-    }
-
-    public int getStrokeWidth() {
-        return mStrokeWidth;
-    }
-
-    public void setStrokeWidth(int strokeWidth) {
-        mStrokeWidth = strokeWidth;
-        mGradientDrawable.setStroke(strokeWidth, getStrokeColor());
-    }
-
-    public int getStrokeColor() {
-        return mStrokeColor;
-    }
-
-    public void setStrokeColor(int strokeColor) {
-        mStrokeColor = strokeColor;
-        mGradientDrawable.setStroke(getStrokeWidth(), strokeColor);
-    }
-
-    public GradientDrawable getGradientDrawable() {
-        return mGradientDrawable;
-    }
-}
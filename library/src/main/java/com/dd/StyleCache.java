@@ -0,0 +1,185 @@
+package com.dd;
+
+import android.content.Context;
+import android.content.res.ColorStateList;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.graphics.drawable.Drawable;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Process-wide cache of resolved button styles. Buttons inflated with the same attributes share
+ * color tables and immutable {@link Drawable.ConstantState}s of their background variants and only
+ * create cheap drawable clones per instance.
+ */
+class StyleCache {
+
+    static final int COLOR_NORMAL = 0;
+    static final int COLOR_PRESSED = 1;
+    static final int COLOR_FOCUSED = 2;
+    static final int COLOR_DISABLED = 3;
+
+    private static final int[][] COLOR_STATE_SETS = new int[][]{
+            {android.R.attr.state_enabled},
+            {android.R.attr.state_pressed},
+            {android.R.attr.state_focused},
+            {-android.R.attr.state_enabled}
+    };
+
+    private static final int MAX_SIZE = 16;
+
+    private static final Configuration sConfiguration = new Configuration();
+    private static final Map<Key, Style> sStyles = new LinkedHashMap<Key, Style>(MAX_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Style> eldest) {
+            return size() > MAX_SIZE;
+        }
+    };
+
+    /**
+     * Drops all cached styles; buttons created afterwards resolve their styles again.
+     */
+    static synchronized void clear() {
+        sStyles.clear();
+    }
+
+    private StyleCache() {
+    }
+
+    public static synchronized Style obtain(Context context, Key key) {
+        Configuration configuration = context.getResources().getConfiguration();
+        if (sConfiguration.diff(configuration) != 0) {
+            sStyles.clear();
+            sConfiguration.setTo(configuration);
+        }
+
+        Style style = sStyles.get(key);
+        if (style == null) {
+            style = new Style(key);
+            sStyles.put(key, style);
+        }
+        return style;
+    }
+
+    static class Key {
+        final int idleSelector;
+        final int completeSelector;
+        final int errorSelector;
+        final float cornerRadius;
+        final int strokeWidth;
+
+        final ColorStateList idleColorStateList;
+        final ColorStateList completeColorStateList;
+        final ColorStateList errorColorStateList;
+        final int[] idleColors;
+        final int[] completeColors;
+        final int[] errorColors;
+
+        /**
+         * Resolves the selectors up front, so styles are shared only when their resolved color
+         * tables match, whichever activity or theme the button is inflated in.
+         */
+        public Key(Resources resources, int idleSelector, int completeSelector, int errorSelector,
+                   float cornerRadius, int strokeWidth) {
+            this.idleSelector = idleSelector;
+            this.completeSelector = completeSelector;
+            this.errorSelector = errorSelector;
+            this.cornerRadius = cornerRadius;
+            this.strokeWidth = strokeWidth;
+
+            idleColorStateList = resources.getColorStateList(idleSelector);
+            completeColorStateList = resources.getColorStateList(completeSelector);
+            errorColorStateList = resources.getColorStateList(errorSelector);
+            idleColors = resolveColors(idleColorStateList);
+            completeColors = resolveColors(completeColorStateList);
+            errorColors = resolveColors(errorColorStateList);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+
+            Key key = (Key) o;
+            return idleSelector == key.idleSelector
+                    && completeSelector == key.completeSelector
+                    && errorSelector == key.errorSelector
+                    && Float.compare(cornerRadius, key.cornerRadius) == 0
+                    && strokeWidth == key.strokeWidth
+                    && Arrays.equals(idleColors, key.idleColors)
+                    && Arrays.equals(completeColors, key.completeColors)
+                    && Arrays.equals(errorColors, key.errorColors);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = idleSelector;
+            result = 31 * result + completeSelector;
+            result = 31 * result + errorSelector;
+            result = 31 * result + Float.floatToIntBits(cornerRadius);
+            result = 31 * result + strokeWidth;
+            result = 31 * result + Arrays.hashCode(idleColors);
+            result = 31 * result + Arrays.hashCode(completeColors);
+            result = 31 * result + Arrays.hashCode(errorColors);
+            return result;
+        }
+    }
+
+    static class Style {
+        final StateStyle idle;
+        final StateStyle complete;
+        final StateStyle error;
+
+        private Style(Key key) {
+            idle = new StateStyle(key, key.idleColorStateList, key.idleColors);
+            complete = new StateStyle(key, key.completeColorStateList, key.completeColors);
+            error = new StateStyle(key, key.errorColorStateList, key.errorColors);
+        }
+    }
+
+    static class StateStyle {
+        final ColorStateList colorStateList;
+        final int[] colors;
+
+        final Drawable.ConstantState normal;
+        final Drawable.ConstantState pressed;
+        final Drawable.ConstantState focused;
+        final Drawable.ConstantState disabled;
+
+        private StateStyle(Key key, ColorStateList colorStateList, int[] colors) {
+            this.colorStateList = colorStateList;
+            this.colors = colors;
+
+            normal = createState(key, colors[COLOR_NORMAL]);
+            pressed = createState(key, colors[COLOR_PRESSED]);
+            focused = createState(key, colors[COLOR_FOCUSED]);
+            disabled = createState(key, colors[COLOR_DISABLED]);
+        }
+    }
+
+    /**
+     * Resolves normal, pressed, focused and disabled colors of the selector into a table indexed by
+     * {@code COLOR_*} constants. Returned tables may be shared, so they must not be modified.
+     */
+    static int[] resolveColors(ColorStateList colorStateList) {
+        int[] colors = new int[COLOR_STATE_SETS.length];
+        for (int i = 0; i < colors.length; i++) {
+            colors[i] = colorStateList.getColorForState(COLOR_STATE_SETS[i], 0);
+        }
+        return colors;
+    }
+
+    /**
+     * Same shape as {@code R.drawable.cpb_background}, built without resource lookup and XML inflation.
+     */
+    private static Drawable.ConstantState createState(Key key, int color) {
+        return new MorphingDrawable.MorphingState(color, color, key.strokeWidth, key.cornerRadius);
+    }
+
+    static MorphingDrawable newDrawable(Resources resources, Drawable.ConstantState state) {
+        return (MorphingDrawable) state.newDrawable(resources);
+    }
+}
@@ -0,0 +1,25 @@
+package com.dd;
+
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+
+/**
+ * One laid out state text, reused until the text, width or text size changes.
+ */
+class TextLayoutCache {
+
+    private Layout mLayout;
+    private float mTextSize;
+
+    Layout obtain(CharSequence text, TextPaint paint, int width) {
+        Layout layout = mLayout;
+        if (layout == null || layout.getText() != text || layout.getWidth() != width
+                || mTextSize != paint.getTextSize()) {
+            layout = new StaticLayout(text, paint, width, Layout.Alignment.ALIGN_CENTER, 1f, 0f, false);
+            mLayout = layout;
+            mTextSize = paint.getTextSize();
+        }
+        return layout;
+    }
+}
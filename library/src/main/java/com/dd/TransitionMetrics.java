@@ -0,0 +1,89 @@
+package com.dd;
+
+import com.dd.CircularProgressButton.StateType;
+
+/**
+ * Cost of a single morph or indeterminate spinner session of a {@link CircularProgressButton}.
+ * Frames are counted from {@link android.view.Choreographer} frame timestamps.
+ */
+public class TransitionMetrics {
+
+    public enum Kind {
+        MORPH, SPINNER
+    }
+
+    public enum Outcome {
+        /**
+         * The morph reached its destination, or the spinner stopped because the button left progress.
+         */
+        COMPLETED,
+        /**
+         * The morph was dropped by a rebind, or the spinner stopped because the button was hidden, detached,
+         * rebound, unbound, resized or switched to the other spinner implementation.
+         */
+        CANCELLED,
+        /**
+         * The morph was retargeted to a newer state before it finished.
+         */
+        COLLAPSED
+    }
+
+    private final Kind mKind;
+    private final StateType mFromState;
+    private final StateType mToState;
+    private final long mDurationMillis;
+    private final int mFrameCount;
+    private final int mSlowFrameCount;
+    private final Outcome mOutcome;
+
+    TransitionMetrics(Kind kind, StateType fromState, StateType toState, long durationMillis, int frameCount,
+                      int slowFrameCount, Outcome outcome) {
+        mKind = kind;
+        mFromState = fromState;
+        mToState = toState;
+        mDurationMillis = durationMillis;
+        mFrameCount = frameCount;
+        mSlowFrameCount = slowFrameCount;
+        mOutcome = outcome;
+    }
+
+    public Kind getKind() {
+        return mKind;
+    }
+
+    public StateType getFromState() {
+        return mFromState;
+    }
+
+    public StateType getToState() {
+        return mToState;
+    }
+
+    public long getDurationMillis() {
+        return mDurationMillis;
+    }
+
+    public int getFrameCount() {
+        return mFrameCount;
+    }
+
+    /**
+     * @return number of frames that took longer than one and a half refresh periods of the button's display
+     */
+    public int getSlowFrameCount() {
+        return mSlowFrameCount;
+    }
+
+    public Outcome getOutcome() {
+        return mOutcome;
+    }
+
+    @Override
+    public String toString() {
+        return "TransitionMetrics{" + mKind + " " + mFromState + "->" + mToState
+                + ", duration=" + mDurationMillis + "ms"
+                + ", frames=" + mFrameCount
+                + ", slowFrames=" + mSlowFrameCount
+                + ", outcome=" + mOutcome + '}';
+    }
+}
@@ -0,0 +1,78 @@
+package com.dd;
+
+import com.dd.CircularProgressButton.StateType;
+
+/**
+ * Counts frames of one running morph or spinner session while a metrics listener is set.
+ */
+class TransitionTracker implements FrameScheduler.Callback {
+
+    private static final float DEFAULT_REFRESH_RATE = 60f;
+
+    private final TransitionMetrics.Kind mKind;
+    private final FrameScheduler mFrameScheduler;
+
+    private boolean mActive;
+    private StateType mFromState;
+    private StateType mToState;
+    private long mSlowFrameNanos;
+    private long mStartNanos;
+    private long mLastFrameNanos;
+    private int mFrameCount;
+    private int mSlowFrameCount;
+
+    public TransitionTracker(TransitionMetrics.Kind kind) {
+        mKind = kind;
+        mFrameScheduler = new FrameScheduler(this);
+    }
+
+    public boolean isActive() {
+        return mActive;
+    }
+
+    /**
+     * @param refreshRate refresh rate of the display the button is shown on, a frame counts as slow when it
+     *                    takes more than one and a half refresh periods
+     */
+    public void begin(StateType fromState, StateType toState, float refreshRate) {
+        if (refreshRate <= 0f) {
+            refreshRate = DEFAULT_REFRESH_RATE;
+        }
+        mActive = true;
+        mSlowFrameNanos = (long) (1000000000L / refreshRate * 1.5f);
+        mFromState = fromState;
+        mToState = toState;
+        mStartNanos = System.nanoTime();
+        mLastFrameNanos = 0;
+        mFrameCount = 0;
+        mSlowFrameCount = 0;
+        mFrameScheduler.scheduleFrame();
+    }
+
+    /**
+     * @return metrics of the finished session or null if nothing was tracked
+     */
+    public TransitionMetrics end(TransitionMetrics.Outcome outcome) {
+        if (!mActive) {
+            return null;
+        }
+        mActive = false;
+        mFrameScheduler.cancelFrame();
+        long durationMillis = (System.nanoTime() - mStartNanos) / 1000000L;
+        return new TransitionMetrics(mKind, mFromState, mToState, durationMillis, mFrameCount, mSlowFrameCount,
+                outcome);
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!mActive) {
+            return;
+        }
+        if (mLastFrameNanos != 0 && frameTimeNanos - mLastFrameNanos > mSlowFrameNanos) {
+            mSlowFrameCount++;
+        }
+        mLastFrameNanos = frameTimeNanos;
+        mFrameCount++;
+        mFrameScheduler.scheduleFrame();
+    }
+}
@@ -0,0 +1,8 @@
+package com.dd;
+
+/**
+ * JUnit category of benchmarks. They are excluded from the unit test tasks and run with
+ * {@code ./gradlew :library:benchmark}.
+ */
+public interface Benchmark {
+}
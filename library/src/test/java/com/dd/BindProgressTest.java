@@ -0,0 +1,73 @@
+package com.dd;
+
+import com.dd.CircularProgressButton.StateType;
+import com.dd.circular.progress.button.BuildConfig;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class BindProgressTest {
+
+    @Test
+    public void bindDuringMorphDoesNotFireEndListener() {
+        CircularProgressButton button = TestButtons.newAttachedButton();
+        final List<TransitionMetrics> morphs = new ArrayList<>();
+        button.setOnTransitionMetricsListener(new OnTransitionMetricsListener() {
+            @Override
+            public void onTransitionMetrics(CircularProgressButton button, TransitionMetrics metrics) {
+                if (metrics.getKind() == TransitionMetrics.Kind.MORPH) {
+                    morphs.add(metrics);
+                }
+            }
+        });
+
+        button.setProgress(50);
+        button.bindProgress(CircularProgressButton.SUCCESS_STATE_PROGRESS);
+        TestButtons.finishMorphs();
+
+        assertEquals(1, morphs.size());
+        assertEquals(TransitionMetrics.Outcome.CANCELLED, morphs.get(0).getOutcome());
+        assertEquals(StateType.COMPLETE, button.getStateType());
+    }
+
+    @Test
+    public void bindWhileIdleJumpsToState() {
+        CircularProgressButton button = TestButtons.newAttachedButton();
+
+        button.bindProgress(CircularProgressButton.ERROR_STATE_PROGRESS);
+        TestButtons.finishMorphs();
+
+        assertEquals(StateType.ERROR, button.getStateType());
+    }
+
+    @Test
+    public void bindDropsPostedProgress() {
+        CircularProgressButton button = TestButtons.newAttachedButton();
+
+        button.postProgress(CircularProgressButton.SUCCESS_STATE_PROGRESS);
+        button.bindProgress(CircularProgressButton.IDLE_STATE_PROGRESS);
+        TestButtons.finishMorphs();
+
+        assertEquals(StateType.IDLE, button.getStateType());
+    }
+
+    @Test
+    public void unbindDropsPostedProgress() {
+        CircularProgressButton button = TestButtons.newAttachedButton();
+
+        button.postProgress(CircularProgressButton.ERROR_STATE_PROGRESS);
+        button.unbind();
+        TestButtons.finishMorphs();
+
+        assertEquals(StateType.IDLE, button.getStateType());
+    }
+}
@@ -0,0 +1,44 @@
+package com.dd;
+
+import com.dd.circular.progress.button.BuildConfig;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class CircularProgressDrawableTest {
+
+    private static final int SIZE = 100;
+
+    @Test
+    public void subPixelSweepChangesAreSkipped() {
+        CircularProgressDrawable drawable = newDrawable();
+
+        drawable.setSweepAngle(180f);
+        drawable.setSweepAngle(180.5f);
+
+        assertEquals(180f, drawable.getSweepAngle(), 0f);
+    }
+
+    @Test
+    public void jumpAppliesSubPixelSweepChanges() {
+        CircularProgressDrawable drawable = newDrawable();
+        drawable.setSmoothProgress(true);
+
+        drawable.setSweepAngle(180f);
+        drawable.jumpToSweepAngle(180.5f);
+
+        assertEquals(180.5f, drawable.getSweepAngle(), 0f);
+    }
+
+    private static CircularProgressDrawable newDrawable() {
+        CircularProgressDrawable drawable = new CircularProgressDrawable(SIZE, 4, 0xff0099cc);
+        drawable.setBounds(0, 0, SIZE, SIZE);
+        return drawable;
+    }
+}
@@ -0,0 +1,54 @@
+package com.dd;
+
+import android.content.Context;
+import android.view.ContextThemeWrapper;
+
+import com.dd.circular.progress.button.BuildConfig;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Times constructing 1, 100 and 1000 buttons after a warm-up and checks the average against a budget.
+ */
+@Category(Benchmark.class)
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class ConstructionBenchmarkTest {
+
+    private static final int[] COUNTS = {1, 100, 1000};
+    private static final int WARM_UP = 1000;
+
+    /** Average construction time per button, generous enough for Robolectric's shadows. */
+    private static final long MAX_MICROS_PER_BUTTON = 2000;
+
+    @Test
+    public void constructButtons() {
+        Context context = new ContextThemeWrapper(RuntimeEnvironment.application, android.R.style.Theme_Holo_Light);
+        construct(context, WARM_UP);
+
+        for (int count : COUNTS) {
+            long start = System.nanoTime();
+            construct(context, count);
+            long microsPerButton = (System.nanoTime() - start) / count / 1000;
+
+            System.out.println("Construction: " + count + " buttons, " + microsPerButton + " us per button");
+            assertTrue(count + " buttons took " + microsPerButton + " us per button",
+                    microsPerButton <= MAX_MICROS_PER_BUTTON);
+        }
+    }
+
+    private static CircularProgressButton[] construct(Context context, int count) {
+        CircularProgressButton[] buttons = new CircularProgressButton[count];
+        for (int i = 0; i < count; i++) {
+            buttons[i] = new CircularProgressButton(context);
+        }
+        return buttons;
+    }
+}
@@ -0,0 +1,46 @@
+package com.dd;
+
+import android.graphics.drawable.Animatable;
+import android.view.ViewGroup;
+
+import com.dd.circular.progress.button.BuildConfig;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class DetachTest {
+
+    @Test
+    public void spinnerStopsWhenDetached() {
+        CircularProgressButton button = TestButtons.newAttachedButton();
+        TestButtons.showSpinner(button);
+        Animatable spinner = button.getSpinner();
+        assertNotNull(spinner);
+        assertTrue(spinner.isRunning());
+
+        ((ViewGroup) button.getParent()).removeView(button);
+
+        assertFalse(spinner.isRunning());
+    }
+
+    @Test
+    public void spinnerResumesWhenReattached() {
+        CircularProgressButton button = TestButtons.newAttachedButton();
+        TestButtons.showSpinner(button);
+        Animatable spinner = button.getSpinner();
+        ViewGroup parent = (ViewGroup) button.getParent();
+
+        parent.removeView(button);
+        parent.addView(button);
+
+        assertTrue(spinner.isRunning());
+    }
+}
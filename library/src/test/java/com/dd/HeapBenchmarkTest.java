@@ -0,0 +1,75 @@
+package com.dd;
+
+import android.widget.FrameLayout;
+
+import com.dd.CircularProgressButton.StateType;
+import com.dd.circular.progress.button.BuildConfig;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Measures the heap retained by laid-out and drawn buttons in every state and checks it against a
+ * per-button budget.
+ */
+@Category(Benchmark.class)
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class HeapBenchmarkTest {
+
+    private static final int BUTTONS = 500;
+
+    /** Retained heap per button, including Robolectric's shadows of the view and its drawables. */
+    private static final long MAX_BYTES_PER_BUTTON = 32 * 1024;
+
+    private static final int[] PROGRESS = {CircularProgressButton.IDLE_STATE_PROGRESS, 50,
+            CircularProgressButton.SUCCESS_STATE_PROGRESS, CircularProgressButton.ERROR_STATE_PROGRESS};
+    private static final StateType[] STATES = {StateType.IDLE, StateType.PROGRESS, StateType.COMPLETE,
+            StateType.ERROR};
+
+    @Test
+    public void buttonsStayWithinHeapBudget() {
+        newButtons(TestButtons.newContainer(), BUTTONS, PROGRESS[0]);
+
+        for (int i = 0; i < PROGRESS.length; i++) {
+            FrameLayout container = TestButtons.newContainer();
+            long before = usedMemory();
+            CircularProgressButton[] buttons = newButtons(container, BUTTONS, PROGRESS[i]);
+            long bytesPerButton = (usedMemory() - before) / BUTTONS;
+
+            System.out.println("Heap: " + STATES[i] + " buttons retain " + bytesPerButton + " bytes per button");
+            for (CircularProgressButton button : buttons) {
+                assertEquals(STATES[i], button.getStateType());
+            }
+            assertTrue(STATES[i] + " buttons retain " + bytesPerButton + " bytes per button",
+                    bytesPerButton <= MAX_BYTES_PER_BUTTON);
+        }
+    }
+
+    private static CircularProgressButton[] newButtons(FrameLayout container, int count, int progress) {
+        CircularProgressButton[] buttons = new CircularProgressButton[count];
+        for (int i = 0; i < count; i++) {
+            CircularProgressButton button = new CircularProgressButton(container.getContext());
+            container.addView(button);
+            TestButtons.layout(button);
+            button.bindProgress(progress);
+            TestButtons.draw(button);
+            buttons[i] = button;
+        }
+        return buttons;
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,40 @@
+package com.dd;
+
+import com.dd.CircularProgressButton.StateType;
+import com.dd.circular.progress.button.BuildConfig;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A laid-out button that never leaves its idle state only holds what it needs to draw that state.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class IdleButtonTest {
+
+    @Test
+    public void layoutDoesNotCreateAnimator() {
+        CircularProgressButton button = TestButtons.newAttachedButton();
+        TestButtons.draw(button);
+
+        assertFalse(button.hasMorphAnimator());
+        assertFalse(button.isMorphing());
+    }
+
+    @Test
+    public void onlyIdleStateIsMaterialized() {
+        CircularProgressButton button = TestButtons.newAttachedButton();
+        TestButtons.draw(button);
+
+        assertTrue(button.isStateMaterialized(StateType.IDLE));
+        assertFalse(button.isStateMaterialized(StateType.PROGRESS));
+        assertFalse(button.isStateMaterialized(StateType.COMPLETE));
+        assertFalse(button.isStateMaterialized(StateType.ERROR));
+    }
+}
@@ -0,0 +1,94 @@
+package com.dd;
+
+import android.content.Context;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import com.dd.circular.progress.button.BuildConfig;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class LayoutPassTest {
+
+    @Test
+    public void contentLayerTransitionsDoNotRequestLayout() {
+        CountingButton button = newButton(true);
+
+        playAllStates(button);
+
+        assertEquals(0, button.layoutRequests);
+    }
+
+    @Test
+    public void textTransitionsRequestLayout() {
+        CountingButton button = newButton(false);
+
+        playAllStates(button);
+
+        assertTrue(button.layoutRequests > 0);
+    }
+
+    @Test
+    public void resizeKeepsStartOfRetargetedMorph() {
+        CircularProgressButton button = TestButtons.newAttachedButton();
+        button.setProgress(50);
+        Robolectric.getForegroundThreadScheduler().advanceBy(MorphingAnimation.DURATION_NORMAL / 2);
+        button.setProgress(CircularProgressButton.SUCCESS_STATE_PROGRESS);
+        MorphGeometry geometry = button.getMorphGeometry();
+        int fromLeft = geometry.fromLeft;
+        int fromRight = geometry.fromRight;
+
+        button.measure(View.MeasureSpec.makeMeasureSpec(2 * TestButtons.WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(TestButtons.HEIGHT, View.MeasureSpec.EXACTLY));
+        button.layout(0, 0, 2 * TestButtons.WIDTH, TestButtons.HEIGHT);
+
+        assertTrue(button.isMorphing());
+        assertEquals(fromLeft, geometry.fromLeft);
+        assertEquals(fromRight, geometry.fromRight);
+        assertEquals(2 * TestButtons.WIDTH, geometry.toRight);
+    }
+
+    private static CountingButton newButton(boolean contentLayer) {
+        FrameLayout container = TestButtons.newContainer();
+        CountingButton button = new CountingButton(container.getContext());
+        button.setContentLayerEnabled(contentLayer);
+        container.addView(button);
+        TestButtons.layout(button);
+        button.layoutRequests = 0;
+        return button;
+    }
+
+    private static void playAllStates(CircularProgressButton button) {
+        int[] progresses = {50, CircularProgressButton.SUCCESS_STATE_PROGRESS, CircularProgressButton.IDLE_STATE_PROGRESS,
+                CircularProgressButton.ERROR_STATE_PROGRESS, CircularProgressButton.IDLE_STATE_PROGRESS};
+        for (int progress : progresses) {
+            button.setProgress(progress);
+            TestButtons.finishMorphs();
+            TestButtons.draw(button);
+        }
+    }
+
+    private static class CountingButton extends CircularProgressButton {
+
+        int layoutRequests;
+
+        CountingButton(Context context) {
+            super(context);
+        }
+
+        @Override
+        public void requestLayout() {
+            layoutRequests++;
+            super.requestLayout();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.dd;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Counts the bytes allocated by morph frames. {@link MorphingAnimation#apply} only copies the fields
+ * computed by {@link MorphGeometry#compute} into the drawable, so a frame must not allocate at all.
+ */
+public class MorphFrameAllocationTest {
+
+    private static final int FRAMES = 100000;
+
+    /** Slack for the allocation counter itself. */
+    private static final long MAX_ALLOCATED_BYTES = 1024;
+
+    @Test
+    public void morphFramesDoNotAllocate() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        Assume.assumeTrue(allocations.isThreadAllocatedMemorySupported());
+        allocations.setThreadAllocatedMemoryEnabled(true);
+
+        MorphGeometry geometry = newGeometry();
+        runFrames(geometry);
+
+        long threadId = Thread.currentThread().getId();
+        long before = allocations.getThreadAllocatedBytes(threadId);
+        runFrames(geometry);
+        long allocated = allocations.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue(FRAMES + " frames allocated " + allocated + " bytes", allocated <= MAX_ALLOCATED_BYTES);
+    }
+
+    private static void runFrames(MorphGeometry geometry) {
+        for (int i = 0; i < FRAMES; i++) {
+            geometry.compute((i % 25) / 24f);
+        }
+    }
+
+    private static MorphGeometry newGeometry() {
+        MorphGeometry geometry = new MorphGeometry();
+        geometry.fromRight = 400;
+        geometry.fromBottom = 100;
+        geometry.toLeft = 150;
+        geometry.toRight = 250;
+        geometry.toBottom = 100;
+        geometry.toCornerRadius = 50;
+        geometry.fromColor = 0xff0099cc;
+        geometry.toColor = 0xffffffff;
+        geometry.fromStrokeColor = 0xff0099cc;
+        geometry.toStrokeColor = 0xffcccccc;
+        return geometry;
+    }
+}
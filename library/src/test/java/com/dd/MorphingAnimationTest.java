@@ -0,0 +1,81 @@
+package com.dd;
+
+import android.animation.ValueAnimator;
+import android.graphics.Rect;
+
+import com.dd.circular.progress.button.BuildConfig;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class MorphingAnimationTest {
+
+    @Test
+    public void sequentialMorphsReuseOneAnimator() {
+        MorphingAnimation animation = newAnimation();
+        animation.start();
+        ValueAnimator animator = animation.getAnimator();
+
+        for (int i = 0; i < 100; i++) {
+            animation.cancel();
+            animation.setFromCurrent();
+            animation.start();
+        }
+
+        assertSame(animator, animation.getAnimator());
+    }
+
+    @Test
+    public void morphStartedFromEndListenerEnds() {
+        final MorphingAnimation animation = newAnimation();
+        final int[] ends = new int[1];
+        animation.setListener(new OnAnimationEndListener() {
+            @Override
+            public void onAnimationEnd() {
+                if (++ends[0] == 1) {
+                    animation.start();
+                }
+            }
+        });
+
+        animation.start();
+        Robolectric.getForegroundThreadScheduler().advanceBy(2 * MorphingAnimation.DURATION_NORMAL);
+        Robolectric.getForegroundThreadScheduler().advanceBy(2 * MorphingAnimation.DURATION_NORMAL);
+
+        assertEquals(2, ends[0]);
+    }
+
+    @Test
+    public void cancelledMorphDoesNotNotifyDetachedListener() {
+        MorphingAnimation animation = newAnimation();
+        final int[] ends = new int[1];
+        animation.setListener(new OnAnimationEndListener() {
+            @Override
+            public void onAnimationEnd() {
+                ends[0]++;
+            }
+        });
+
+        animation.start();
+        animation.setListener(null);
+        animation.cancel();
+
+        assertEquals(0, ends[0]);
+    }
+
+    private static MorphingAnimation newAnimation() {
+        MorphingAnimation animation = new MorphingAnimation(new MorphingDrawable(0, 0, 4, 0));
+        animation.setDuration(MorphingAnimation.DURATION_NORMAL);
+        animation.setFromShape(new Rect(0, 0, 200, 50), 0);
+        animation.setToShape(new Rect(75, 0, 125, 50), 25);
+        return animation;
+    }
+}
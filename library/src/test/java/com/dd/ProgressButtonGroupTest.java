@@ -0,0 +1,59 @@
+package com.dd;
+
+import com.dd.circular.progress.button.BuildConfig;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class ProgressButtonGroupTest {
+
+    @Test
+    public void latestProgressOfFrameIsApplied() {
+        CircularProgressButton button = TestButtons.newAttachedButton();
+        ProgressButtonGroup group = new ProgressButtonGroup();
+
+        group.setProgress(button, 10);
+        group.setProgress(button, 20);
+        TestButtons.finishMorphs();
+
+        assertEquals(20, button.getProgress());
+    }
+
+    @Test
+    public void groupsKeepSeparateSlots() {
+        CircularProgressButton first = TestButtons.newAttachedButton();
+        CircularProgressButton second = TestButtons.newAttachedButton();
+        ProgressButtonGroup group = new ProgressButtonGroup();
+        ProgressButtonGroup other = new ProgressButtonGroup();
+
+        group.setProgress(first, 10);
+        other.setProgress(second, 30);
+        group.setProgress(first, 20);
+        other.setProgress(second, 40);
+        TestButtons.finishMorphs();
+
+        assertEquals(20, first.getProgress());
+        assertEquals(40, second.getProgress());
+    }
+
+    @Test
+    public void removedButtonSkipsPendingProgress() {
+        CircularProgressButton first = TestButtons.newAttachedButton();
+        CircularProgressButton second = TestButtons.newAttachedButton();
+        ProgressButtonGroup group = new ProgressButtonGroup();
+
+        group.setProgress(first, 10);
+        group.setProgress(second, 20);
+        group.remove(first);
+        TestButtons.finishMorphs();
+
+        assertEquals(0, first.getProgress());
+        assertEquals(20, second.getProgress());
+    }
+}
@@ -0,0 +1,59 @@
+package com.dd;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+
+import com.dd.circular.progress.button.BuildConfig;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class ProgressButtonRendererTest {
+
+    @Test
+    public void retargetedMorphContinuesFromDrawnFrame() {
+        ProgressButtonRenderer renderer = new ProgressButtonRenderer(RuntimeEnvironment.application);
+        ProgressButtonModel model = new ProgressButtonModel();
+        model.bounds.set(0, 0, TestButtons.WIDTH, TestButtons.HEIGHT);
+        List<ProgressButtonModel> models = Collections.singletonList(model);
+        Canvas canvas = new Canvas(Bitmap.createBitmap(TestButtons.WIDTH, TestButtons.HEIGHT, Bitmap.Config.ARGB_8888));
+
+        model.setProgress(50);
+        renderer.draw(canvas, models);
+        Robolectric.getForegroundThreadScheduler().advanceBy(ProgressButtonRenderer.MORPH_DURATION / 2);
+        renderer.draw(canvas, models);
+        int left = model.mGeometry.left;
+        int right = model.mGeometry.right;
+        assertTrue(left > 0);
+
+        model.setProgress(CircularProgressButton.SUCCESS_STATE_PROGRESS);
+        renderer.draw(canvas, models);
+
+        assertEquals(left, model.mGeometry.left);
+        assertEquals(right, model.mGeometry.right);
+    }
+
+    @Test
+    public void morphEasesLikeButton() {
+        MorphGeometry geometry = new MorphGeometry();
+        geometry.toRight = 1000;
+
+        geometry.compute(0.5f);
+        assertEquals(500, geometry.right, 1);
+
+        geometry.compute(0.25f);
+        assertTrue(geometry.right < 250);
+    }
+}
@@ -0,0 +1,25 @@
+package com.dd;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ProgressStateMachineTest {
+
+    private static final int MAX = ProgressStateMachine.SUCCESS_PROGRESS;
+
+    @Test
+    public void mapsProgressToStates() {
+        assertEquals(ProgressStateMachine.STATE_IDLE, ProgressStateMachine.getState(0, MAX));
+        assertEquals(ProgressStateMachine.STATE_ERROR, ProgressStateMachine.getState(-1, MAX));
+        assertEquals(ProgressStateMachine.STATE_PROGRESS, ProgressStateMachine.getState(1, MAX));
+        assertEquals(ProgressStateMachine.STATE_PROGRESS, ProgressStateMachine.getState(MAX - 1, MAX));
+        assertEquals(ProgressStateMachine.STATE_COMPLETE, ProgressStateMachine.getState(MAX, MAX));
+        assertEquals(ProgressStateMachine.STATE_COMPLETE, ProgressStateMachine.getState(MAX + 1, MAX));
+    }
+
+    @Test
+    public void unmappedProgressHasNoState() {
+        assertEquals(ProgressStateMachine.STATE_NONE, ProgressStateMachine.getState(-2, MAX));
+    }
+}
@@ -0,0 +1,44 @@
+package com.dd;
+
+import android.os.Parcelable;
+
+import com.dd.circular.progress.button.BuildConfig;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class SavedStateTest {
+
+    @Test
+    public void restoresPercentProgress() {
+        CircularProgressButton button = TestButtons.newAttachedButton();
+        button.setProgress(42);
+
+        CircularProgressButton restored = restore(button.onSaveInstanceState());
+
+        assertEquals(42, restored.getProgress());
+    }
+
+    @Test
+    public void restoresLongProgress() {
+        CircularProgressButton button = TestButtons.newAttachedButton();
+        button.setProgress(3L, 1000L);
+
+        CircularProgressButton restored = restore(button.onSaveInstanceState());
+
+        assertEquals(button.getProgress(), restored.getProgress());
+        assertEquals(button.getProgressSweepAngle(), restored.getProgressSweepAngle(), 0.001f);
+    }
+
+    private static CircularProgressButton restore(Parcelable state) {
+        CircularProgressButton button = TestButtons.newAttachedButton();
+        button.onRestoreInstanceState(state);
+        return button;
+    }
+}
@@ -0,0 +1,59 @@
+package com.dd;
+
+import android.graphics.drawable.Animatable;
+import android.view.View;
+
+import com.dd.circular.progress.button.BuildConfig;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class SpinnerLifecycleTest {
+
+    @Test
+    public void spinnerStopsWhenLeavingProgress() {
+        CircularProgressButton button = TestButtons.newAttachedButton();
+        TestButtons.showSpinner(button);
+        Animatable spinner = button.getSpinner();
+        assertNotNull(spinner);
+
+        button.setProgress(CircularProgressButton.SUCCESS_STATE_PROGRESS);
+
+        assertFalse(spinner.isRunning());
+        assertNull(button.getSpinner());
+    }
+
+    @Test
+    public void spinnerStopsWhenBoundOutOfProgress() {
+        CircularProgressButton button = TestButtons.newAttachedButton();
+        TestButtons.showSpinner(button);
+        Animatable spinner = button.getSpinner();
+
+        button.bindProgress(CircularProgressButton.IDLE_STATE_PROGRESS);
+
+        assertFalse(spinner.isRunning());
+        assertNull(button.getSpinner());
+    }
+
+    @Test
+    public void visibilityChangeDoesNotRestartSpinnerOutsideProgress() {
+        CircularProgressButton button = TestButtons.newAttachedButton();
+        TestButtons.showSpinner(button);
+        Animatable spinner = button.getSpinner();
+        button.setProgress(CircularProgressButton.SUCCESS_STATE_PROGRESS);
+        TestButtons.finishMorphs();
+
+        button.setVisibility(View.INVISIBLE);
+        button.setVisibility(View.VISIBLE);
+
+        assertFalse(spinner.isRunning());
+    }
+}
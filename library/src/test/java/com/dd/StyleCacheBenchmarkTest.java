@@ -0,0 +1,75 @@
+package com.dd;
+
+import android.content.Context;
+import android.view.ContextThemeWrapper;
+
+import com.dd.circular.progress.button.BuildConfig;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares inflation time and retained heap of buttons that resolve their own style (the cache is
+ * cleared before each button) with buttons that share a cached style.
+ */
+@Category(Benchmark.class)
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class StyleCacheBenchmarkTest {
+
+    private static final int BUTTONS = 1000;
+
+    @Test
+    public void cachedStylesAreCheaperThanResolvedOnes() {
+        Context context = new ContextThemeWrapper(RuntimeEnvironment.application, android.R.style.Theme_Holo_Light);
+        inflate(context, BUTTONS, false);
+        inflate(context, BUTTONS, true);
+
+        long before = usedMemory();
+        long start = System.nanoTime();
+        CircularProgressButton[] uncached = inflate(context, BUTTONS, false);
+        long uncachedNanos = System.nanoTime() - start;
+        long uncachedBytes = usedMemory() - before;
+
+        before = usedMemory();
+        start = System.nanoTime();
+        CircularProgressButton[] cached = inflate(context, BUTTONS, true);
+        long cachedNanos = System.nanoTime() - start;
+        long cachedBytes = usedMemory() - before;
+
+        System.out.println("StyleCache: " + BUTTONS + " buttons without cache " + uncachedNanos / 1000 + " us, "
+                + uncachedBytes / BUTTONS + " bytes per button; with cache " + cachedNanos / 1000 + " us, "
+                + cachedBytes / BUTTONS + " bytes per button");
+        assertNotSame(uncached[0].getStyle(), uncached[1].getStyle());
+        assertSame(cached[0].getStyle(), cached[BUTTONS - 1].getStyle());
+        assertTrue("cached buttons retain " + cachedBytes + " bytes, uncached " + uncachedBytes,
+                cachedBytes < uncachedBytes);
+    }
+
+    private static CircularProgressButton[] inflate(Context context, int count, boolean cached) {
+        CircularProgressButton[] buttons = new CircularProgressButton[count];
+        for (int i = 0; i < count; i++) {
+            if (!cached) {
+                StyleCache.clear();
+            }
+            buttons[i] = new CircularProgressButton(context);
+        }
+        return buttons;
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
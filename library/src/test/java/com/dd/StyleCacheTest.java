@@ -0,0 +1,69 @@
+package com.dd;
+
+import android.content.Context;
+import android.view.ContextThemeWrapper;
+
+import com.dd.circular.progress.button.BuildConfig;
+import com.dd.circular.progress.button.R;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class StyleCacheTest {
+
+    @Test
+    public void sameAttributesShareStyle() {
+        Context context = new ContextThemeWrapper(RuntimeEnvironment.application, android.R.style.Theme_Holo_Light);
+
+        StyleCache.Style first = StyleCache.obtain(context, newKey(context, 4));
+        StyleCache.Style second = StyleCache.obtain(context, newKey(context, 4));
+
+        assertSame(first, second);
+    }
+
+    @Test
+    public void buttonsShareStyle() {
+        Context context = new ContextThemeWrapper(RuntimeEnvironment.application, android.R.style.Theme_Holo_Light);
+
+        assertSame(new CircularProgressButton(context).getStyle(), new CircularProgressButton(context).getStyle());
+    }
+
+    @Test
+    public void sameColorsInDifferentThemesShareStyle() {
+        Context light = new ContextThemeWrapper(RuntimeEnvironment.application, android.R.style.Theme_Holo_Light);
+        Context dark = new ContextThemeWrapper(RuntimeEnvironment.application, android.R.style.Theme_Holo);
+
+        assertSame(StyleCache.obtain(light, newKey(light, 4)), StyleCache.obtain(dark, newKey(dark, 4)));
+    }
+
+    @Test
+    public void differentStrokeWidthsDoNotShareStyle() {
+        Context context = new ContextThemeWrapper(RuntimeEnvironment.application, android.R.style.Theme_Holo_Light);
+
+        assertNotSame(StyleCache.obtain(context, newKey(context, 4)), StyleCache.obtain(context, newKey(context, 8)));
+    }
+
+    @Test
+    public void keysCompareResolvedColors() {
+        Context context = new ContextThemeWrapper(RuntimeEnvironment.application, android.R.style.Theme_Holo_Light);
+        StyleCache.Key key = newKey(context, 4);
+        StyleCache.Key same = newKey(context, 4);
+
+        assertEquals(key, same);
+        assertEquals(key.hashCode(), same.hashCode());
+    }
+
+    private static StyleCache.Key newKey(Context context, int strokeWidth) {
+        return new StyleCache.Key(context.getResources(), R.color.cpb_idle_state_selector,
+                R.color.cpb_complete_state_selector, R.color.cpb_error_state_selector, 0, strokeWidth);
+    }
+}
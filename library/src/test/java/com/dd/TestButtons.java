@@ -0,0 +1,65 @@
+package com.dd;
+
+import android.app.Activity;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import org.robolectric.Robolectric;
+
+/**
+ * Helpers for driving buttons attached to a Robolectric activity.
+ */
+class TestButtons {
+
+    static final int WIDTH = 400;
+    static final int HEIGHT = 100;
+
+    private TestButtons() {
+    }
+
+    static FrameLayout newContainer() {
+        Activity activity = Robolectric.setupActivity(Activity.class);
+        FrameLayout container = new FrameLayout(activity);
+        activity.setContentView(container);
+        return container;
+    }
+
+    static CircularProgressButton newAttachedButton() {
+        FrameLayout container = newContainer();
+        CircularProgressButton button = new CircularProgressButton(container.getContext());
+        container.addView(button);
+        layout(button);
+        return button;
+    }
+
+    static void layout(View view) {
+        view.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        view.layout(0, 0, WIDTH, HEIGHT);
+    }
+
+    /**
+     * Runs pending morphs and posted follow-ups to completion.
+     */
+    static void finishMorphs() {
+        for (int i = 0; i < 4; i++) {
+            Robolectric.getForegroundThreadScheduler().advanceBy(2 * MorphingAnimation.DURATION_NORMAL);
+        }
+    }
+
+    static void draw(View view) {
+        view.draw(new Canvas(Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888)));
+    }
+
+    /**
+     * Morphs the button into its indeterminate progress state and draws it once, which starts the spinner.
+     */
+    static void showSpinner(CircularProgressButton button) {
+        button.setIndeterminateProgressMode(true);
+        button.setProgress(50);
+        finishMorphs();
+        draw(button);
+    }
+}
@@ -0,0 +1,94 @@
+package com.dd;
+
+import com.dd.CircularProgressButton.StateType;
+import com.dd.circular.progress.button.BuildConfig;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class TransitionPolicyTest {
+
+    @Test
+    public void playAllPlaysQueuedStatesInOrder() {
+        CircularProgressButton button = TestButtons.newAttachedButton();
+        button.setTransitionPolicy(CircularProgressButton.TransitionPolicy.PLAY_ALL);
+        List<StateType> morphs = recordCompletedMorphs(button);
+
+        button.setProgress(50);
+        button.setProgress(CircularProgressButton.SUCCESS_STATE_PROGRESS);
+        button.setProgress(CircularProgressButton.ERROR_STATE_PROGRESS);
+        TestButtons.finishMorphs();
+
+        assertEquals(3, morphs.size());
+        assertEquals(StateType.PROGRESS, morphs.get(0));
+        assertEquals(StateType.COMPLETE, morphs.get(1));
+        assertEquals(StateType.ERROR, morphs.get(2));
+        assertEquals(StateType.ERROR, button.getStateType());
+    }
+
+    @Test
+    public void queuedMorphIsNotStartedFromEndCallback() {
+        final CircularProgressButton button = TestButtons.newAttachedButton();
+        button.setTransitionPolicy(CircularProgressButton.TransitionPolicy.PLAY_ALL);
+        final List<Boolean> morphingAfterEnd = new ArrayList<>();
+        button.setOnTransitionMetricsListener(new OnTransitionMetricsListener() {
+            @Override
+            public void onTransitionMetrics(CircularProgressButton b, TransitionMetrics metrics) {
+                if (metrics.getKind() == TransitionMetrics.Kind.MORPH) {
+                    // runs right after the end callback returns, before any follow-up it posted
+                    button.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            morphingAfterEnd.add(button.isMorphing());
+                        }
+                    });
+                }
+            }
+        });
+
+        button.setProgress(50);
+        button.setProgress(CircularProgressButton.SUCCESS_STATE_PROGRESS);
+        TestButtons.finishMorphs();
+
+        assertEquals(2, morphingAfterEnd.size());
+        assertFalse(morphingAfterEnd.get(0));
+        assertEquals(StateType.COMPLETE, button.getStateType());
+    }
+
+    @Test
+    public void queuedInstantMorphStaysInstant() {
+        CircularProgressButton button = TestButtons.newAttachedButton();
+        button.setTransitionPolicy(CircularProgressButton.TransitionPolicy.PLAY_ALL);
+
+        button.setProgress(50);
+        button.setProgress(CircularProgressButton.SUCCESS_STATE_PROGRESS, true);
+        Robolectric.getForegroundThreadScheduler().advanceBy(MorphingAnimation.DURATION_NORMAL + 100);
+
+        assertEquals(StateType.COMPLETE, button.getStateType());
+    }
+
+    private static List<StateType> recordCompletedMorphs(CircularProgressButton button) {
+        final List<StateType> morphs = new ArrayList<>();
+        button.setOnTransitionMetricsListener(new OnTransitionMetricsListener() {
+            @Override
+            public void onTransitionMetrics(CircularProgressButton button, TransitionMetrics metrics) {
+                if (metrics.getKind() == TransitionMetrics.Kind.MORPH
+                        && metrics.getOutcome() == TransitionMetrics.Outcome.COMPLETED) {
+                    morphs.add(metrics.getToState());
+                }
+            }
+        });
+        return morphs;
+    }
+}